@@ -0,0 +1,74 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.DTO.UserGroupDTO;
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Country aggregation: summing every membership of the tournament as getCountryLeaderboard used to,
+ * against the striped counters of CountryLeaderboard under concurrent score updates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class CountryLeaderboardBenchmark {
+
+    @Param({"10000", "100000"})
+    private int users;
+
+    private List<UserGroupDTO> memberships;
+    private CountryLeaderboard leaderboard;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        memberships = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            memberships.add(new UserGroupDTO("USER" + i, "user" + i, 25, 5000,
+                    UserService.COUNTRIES.get(random.nextInt(UserService.COUNTRIES.size())), random.nextInt(100)));
+        }
+        List<Object[]> totals = memberships.stream()
+                .collect(Collectors.groupingBy(UserGroupDTO::getCountry, Collectors.summingLong(UserGroupDTO::getScore)))
+                .entrySet().stream()
+                .map(e -> new Object[]{e.getKey(), e.getValue()})
+                .collect(Collectors.toList());
+
+        leaderboard = new CountryLeaderboard();
+        ReflectionTestUtils.setField(leaderboard, "maxStalenessMillis", 1000L);
+        ReflectionTestUtils.setField(leaderboard, "reconcileIntervalMillis", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(leaderboard, "userGroupRepository", RepositoryFakes.fake(UserGroupRepository.class,
+                Map.of("sumScoresByCountry", args -> totals)));
+        leaderboard.warmUp(1L);
+    }
+
+    @Benchmark
+    public Map<String, Integer> legacyFullAggregation() {
+        Map<String, Integer> countryScores = new HashMap<>();
+        for (UserGroupDTO membership : memberships) {
+            countryScores.merge(membership.getCountry(), membership.getScore(), Integer::sum);
+        }
+        return countryScores.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+    }
+
+    @Benchmark
+    public Map<String, Integer> countersRead() {
+        return leaderboard.get(1L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void countersIncrement() {
+        List<String> countries = UserService.COUNTRIES;
+        leaderboard.add(1L, countries.get(ThreadLocalRandom.current().nextInt(countries.size())), 1);
+    }
+}
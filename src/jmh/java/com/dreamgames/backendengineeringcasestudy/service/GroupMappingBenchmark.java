@@ -0,0 +1,107 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.BackendEngineeringCaseStudyApplication;
+import com.dreamgames.backendengineeringcasestudy.DTO.GroupMemberRowDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.TournamentGroupDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO mapping of TournamentService.getActiveTournamentGroupsWithUsers, on projection rows held in
+ * memory and end to end against an H2 database seeded with a full tournament.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GroupMappingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Rows {
+        @Param({"1000", "10000"})
+        private int groups;
+
+        private List<GroupMemberRowDTO> rows;
+
+        @Setup
+        public void setUp() {
+            rows = new ArrayList<>(groups * GroupMatchmakingIndex.GROUP_SIZE);
+            for (long g = 1; g <= groups; g++) {
+                for (int m = 0; m < GroupMatchmakingIndex.GROUP_SIZE; m++) {
+                    String userId = "USER" + (g * GroupMatchmakingIndex.GROUP_SIZE + m);
+                    rows.add(new GroupMemberRowDTO(g, true, userId, userId, 25, 4000, UserService.COUNTRIES.get(m), m));
+                }
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        @Param({"2000"})
+        private int groups;
+
+        private ConfigurableApplicationContext context;
+        private TournamentService tournamentService;
+
+        @Setup
+        public void setUp() {
+            context = new SpringApplicationBuilder(BackendEngineeringCaseStudyApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run();
+            seed(context.getBean(JdbcTemplate.class));
+            context.getBean(ActiveTournamentHolder.class).refresh();
+            tournamentService = context.getBean(TournamentService.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+
+        private void seed(JdbcTemplate jdbc) {
+            long now = System.currentTimeMillis();
+            jdbc.update("INSERT INTO tournament (id, tournament_name, start_time, end_time) VALUES (1, 'Benchmark', ?, ?)",
+                    new Timestamp(now - TimeUnit.HOURS.toMillis(1)), new Timestamp(now + TimeUnit.DAYS.toMillis(1)));
+
+            List<Object[]> groupRows = new ArrayList<>();
+            List<Object[]> userRows = new ArrayList<>();
+            List<Object[]> memberRows = new ArrayList<>();
+            long id = 0;
+            for (long g = 1; g <= groups; g++) {
+                groupRows.add(new Object[]{g});
+                for (int m = 0; m < GroupMatchmakingIndex.GROUP_SIZE; m++) {
+                    id++;
+                    userRows.add(new Object[]{id, "USER" + id, "user" + id, UserService.COUNTRIES.get(m), new Timestamp(now)});
+                    memberRows.add(new Object[]{id, id, g, m});
+                }
+            }
+            jdbc.batchUpdate("INSERT INTO tournament_group (id, tournament_id, competition_started) VALUES (?, 1, true)", groupRows);
+            jdbc.batchUpdate("INSERT INTO user (id, user_id, user_name, level, coins, country, created_at, in_tournament, reward_claimed) " +
+                    "VALUES (?, ?, ?, 25, 4000, ?, ?, true, false)", userRows);
+            jdbc.batchUpdate("INSERT INTO user_group (id, user_id, group_id, score, active) VALUES (?, ?, ?, ?, true)", memberRows);
+        }
+    }
+
+    @Benchmark
+    public List<TournamentGroupDTO> mapRows(Rows state) {
+        return TournamentService.toGroupDTOs(state.rows);
+    }
+
+    @Benchmark
+    public List<TournamentGroupDTO> allGroupsFromH2(Database state) {
+        return state.tournamentService.getActiveTournamentGroupsWithUsers();
+    }
+
+    @Benchmark
+    public List<TournamentGroupDTO> groupPageFromH2(Database state) {
+        return state.tournamentService.getActiveTournamentGroupsWithUsers(state.groups / 2L, 100);
+    }
+}
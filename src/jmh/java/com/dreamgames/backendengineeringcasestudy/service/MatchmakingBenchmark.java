@@ -0,0 +1,72 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentGroupRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group matching of TournamentService.findOrCreateGroup: claiming a slot for the country of an
+ * entering user, or opening a new group when no open group lacks that country.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class MatchmakingBenchmark {
+
+    @Param({"uniform", "skewed"})
+    private String countries;
+
+    private GroupMatchmakingIndex index;
+    private final AtomicLong nextGroupId = new AtomicLong();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        index = new GroupMatchmakingIndex();
+        ReflectionTestUtils.setField(index, "tournamentGroupRepository", RepositoryFakes.fake(TournamentGroupRepository.class,
+                Map.of("findGroupMemberCountries", args -> Collections.emptyList())));
+        index.warmUp(1L);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long findOrCreateGroup() {
+        return enter();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Long findOrCreateGroupContended() {
+        return enter();
+    }
+
+    private Long enter() {
+        String country = country();
+        Optional<GroupMatchmakingIndex.Slot> slot = index.claimSlot(1L, country);
+        if (slot.isPresent()) {
+            return slot.get().groupId();
+        }
+        Long groupId = nextGroupId.incrementAndGet();
+        index.registerGroup(1L, groupId, country);
+        return groupId;
+    }
+
+    private String country() {
+        List<String> all = UserService.COUNTRIES;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Skewed: most users come from one country, which leaves many groups waiting for the others
+        if (countries.equals("skewed") && random.nextInt(10) < 6) {
+            return all.get(0);
+        }
+        return all.get(random.nextInt(all.size()));
+    }
+}
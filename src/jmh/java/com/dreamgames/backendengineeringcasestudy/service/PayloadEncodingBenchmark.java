@@ -0,0 +1,92 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.DTO.GroupLeaderboardDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.TournamentGroupDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.UserGroupDTO;
+import com.dreamgames.backendengineeringcasestudy.config.BinaryEncodingConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the /getGroups and /groupLeaderboard responses in JSON and in the binary
+ * encodings of BinaryEncodingConfig, with the mappers the converters use. The payload size of each
+ * encoding is printed when its trial starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class PayloadEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String encoding;
+
+    @Param({"1000"})
+    private int groups;
+
+    private ObjectMapper mapper;
+    private List<TournamentGroupDTO> groupList;
+    private List<GroupLeaderboardDTO> leaderboard;
+    private byte[] encodedGroups;
+    private byte[] encodedLeaderboard;
+    private JavaType groupListType;
+    private JavaType leaderboardType;
+
+    @Setup
+    public void setUp() throws IOException {
+        BinaryEncodingConfig config = new BinaryEncodingConfig();
+        mapper = switch (encoding) {
+            case "smile" -> config.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            case "cbor" -> config.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+
+        groupList = new ArrayList<>(groups);
+        for (long g = 1; g <= groups; g++) {
+            List<UserGroupDTO> users = new ArrayList<>(GroupMatchmakingIndex.GROUP_SIZE);
+            for (int m = 0; m < GroupMatchmakingIndex.GROUP_SIZE; m++) {
+                String userId = "USER" + String.format("%019d", g * GroupMatchmakingIndex.GROUP_SIZE + m);
+                users.add(new UserGroupDTO(userId, "player" + m, 25, 4000, UserService.COUNTRIES.get(m), m * 7));
+            }
+            groupList.add(new TournamentGroupDTO(g, users, true));
+        }
+        leaderboard = groupList.get(0).getUsers().stream()
+                .map(u -> new GroupLeaderboardDTO(u.getUserId(), u.getUserName(), u.getCountry(), u.getScore()))
+                .toList();
+
+        groupListType = mapper.getTypeFactory().constructCollectionType(List.class, TournamentGroupDTO.class);
+        leaderboardType = mapper.getTypeFactory().constructCollectionType(List.class, GroupLeaderboardDTO.class);
+        encodedGroups = mapper.writeValueAsBytes(groupList);
+        encodedLeaderboard = mapper.writeValueAsBytes(leaderboard);
+        System.out.println(encoding + ": " + groups + " groups " + encodedGroups.length + " bytes, group leaderboard "
+                + encodedLeaderboard.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encodeGroups() throws IOException {
+        return mapper.writeValueAsBytes(groupList);
+    }
+
+    @Benchmark
+    public List<TournamentGroupDTO> decodeGroups() throws IOException {
+        return mapper.readValue(encodedGroups, groupListType);
+    }
+
+    @Benchmark
+    public byte[] encodeGroupLeaderboard() throws IOException {
+        return mapper.writeValueAsBytes(leaderboard);
+    }
+
+    @Benchmark
+    public List<GroupLeaderboardDTO> decodeGroupLeaderboard() throws IOException {
+        return mapper.readValue(encodedLeaderboard, leaderboardType);
+    }
+}
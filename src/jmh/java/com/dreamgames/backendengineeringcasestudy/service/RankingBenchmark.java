@@ -0,0 +1,117 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.DTO.UserGroupDTO;
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank lookups of TournamentService.getUserRank: the quick sort it used before the rank index,
+ * a library sort for reference, and the rank index itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class RankingBenchmark {
+
+    @Param({"1000", "10000"})
+    private int users;
+
+    @Param({"uniform", "skewed", "allEqual"})
+    private String distribution;
+
+    private List<UserGroupDTO> scores;
+    private String targetUserId;
+    private TournamentRankIndex rankIndex;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        scores = new ArrayList<>(users);
+        List<Object[]> rows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            int score = switch (distribution) {
+                case "uniform" -> random.nextInt(1000);
+                // Most users barely play, a few play a lot
+                case "skewed" -> (int) Math.min(1000, Math.abs(random.nextGaussian()) * random.nextGaussian() * 50);
+                default -> 0;
+            };
+            score = Math.max(0, score);
+            scores.add(new UserGroupDTO("USER" + i, "user" + i, 25, 5000, "Turkey", score));
+            rows.add(new Object[]{"USER" + i, (long) i, (long) i / GroupMatchmakingIndex.GROUP_SIZE, "Turkey", score});
+        }
+        targetUserId = "USER" + users / 2;
+
+        rankIndex = new TournamentRankIndex();
+        ReflectionTestUtils.setField(rankIndex, "maxTournaments", 1);
+        ReflectionTestUtils.setField(rankIndex, "userGroupRepository", RepositoryFakes.fake(UserGroupRepository.class,
+                Map.of("findRankEntries", args -> rows)));
+        rankIndex.warmUp(1L);
+    }
+
+    @Benchmark
+    public int legacyQuickSortRank() {
+        List<UserGroupDTO> copy = new ArrayList<>(scores);
+        quickSort(copy, 0, copy.size() - 1);
+        return position(copy);
+    }
+
+    @Benchmark
+    public int listSortRank() {
+        List<UserGroupDTO> copy = new ArrayList<>(scores);
+        copy.sort(Comparator.comparingInt(UserGroupDTO::getScore).reversed());
+        return position(copy);
+    }
+
+    @Benchmark
+    public int rankIndexLookup() {
+        return rankIndex.rank(1L, targetUserId).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<TournamentRankIndex.Entry> rankIndexIncrement() {
+        next = (next + 7919) % users;
+        return rankIndex.incrementScore(1L, "USER" + next, 1);
+    }
+
+    private int position(List<UserGroupDTO> sorted) {
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getUserId().equals(targetUserId)) {
+                return i + 1;
+            }
+        }
+        throw new IllegalStateException("User not found in the tournament");
+    }
+
+    // The quick sort TournamentService used before the rank index, kept as the baseline
+    private static void quickSort(List<UserGroupDTO> list, int low, int high) {
+        if (low < high) {
+            int pi = partition(list, low, high);
+            quickSort(list, low, pi - 1);
+            quickSort(list, pi + 1, high);
+        }
+    }
+
+    private static int partition(List<UserGroupDTO> list, int low, int high) {
+        UserGroupDTO pivot = list.get(high);
+        int i = (low - 1);
+        for (int j = low; j < high; j++) {
+            if (list.get(j).getScore() > pivot.getScore()) {
+                i++;
+                UserGroupDTO temp = list.get(i);
+                list.set(i, list.get(j));
+                list.set(j, temp);
+            }
+        }
+        UserGroupDTO temp = list.get(i + 1);
+        list.set(i + 1, list.get(high));
+        list.set(high, temp);
+        return i + 1;
+    }
+}
@@ -0,0 +1,39 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for the Spring Data repositories, answering only the methods a benchmark needs.
+ */
+final class RepositoryFakes {
+
+    private RepositoryFakes() {
+    }
+
+    /**
+     * Creates a repository whose listed methods return the given answers and whose other methods fail.
+     *
+     * @param type The repository interface.
+     * @param answers The answer of each supported method by method name, given the call arguments.
+     * @return The fake repository.
+     */
+    static <T> T fake(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object fake = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "Fake" + type.getSimpleName();
+                };
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return type.cast(fake);
+    }
+}
@@ -0,0 +1,70 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signup without the database: user ID generation on its own and UserService.createUser against a
+ * repository that returns the saved user. Compare the throughput of the 1, 4 and all-core variants
+ * to see how signups scale with cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class UserIdBenchmark {
+
+    private UserIdGenerator generator;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        generator = new UserIdGenerator();
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userIdGenerator", generator);
+        ReflectionTestUtils.setField(userService, "repository", RepositoryFakes.fake(UserRepository.class,
+                Map.of("save", args -> args[0])));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String nextUserId() {
+        return generator.nextUserId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextUserId4Threads() {
+        return generator.nextUserId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String nextUserIdAllCores() {
+        return generator.nextUserId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public User createUser() {
+        return userService.createUser("bench");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public User createUser4Threads() {
+        return userService.createUser("bench");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public User createUserAllCores() {
+        return userService.createUser("bench");
+    }
+}
@@ -0,0 +1,15 @@
+package com.dreamgames.backendengineeringcasestudy.DTO;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BulkCreateReportDTO {
+    private long usersCreated;
+    private int chunks;
+    private long elapsedMillis;
+    private long usersPerSecond;
+}
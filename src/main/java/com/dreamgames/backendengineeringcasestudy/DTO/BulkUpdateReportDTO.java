@@ -0,0 +1,14 @@
+package com.dreamgames.backendengineeringcasestudy.DTO;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BulkUpdateReportDTO {
+    private long rowsUpdated;
+    private int chunks;
+    private long elapsedMillis;
+}
@@ -0,0 +1,15 @@
+package com.dreamgames.backendengineeringcasestudy.DTO;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class FinalizationReportDTO {
+    private Long tournamentId;
+    private long rowsUpdated;
+    private int chunks;
+    private long elapsedMillis;
+}
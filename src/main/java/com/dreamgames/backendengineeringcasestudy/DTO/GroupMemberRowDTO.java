@@ -0,0 +1,23 @@
+package com.dreamgames.backendengineeringcasestudy.DTO;
+
+import lombok.*;
+
+/**
+ * A row of a group joined with one of its members, read directly by a projection query.
+ * The member fields are null for groups without members.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class GroupMemberRowDTO {
+    private Long groupId;
+    private boolean competitionStarted;
+    private String userId;
+    private String userName;
+    private Integer level;
+    private Integer coins;
+    private String country;
+    private Integer score;
+}
@@ -0,0 +1,20 @@
+package com.dreamgames.backendengineeringcasestudy.DTO;
+
+import lombok.*;
+
+/**
+ * Users to update and the values to set. Filters left null match every user, values left null are not changed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserBulkUpdateDTO {
+    private String country;
+    private Integer minLevel;
+    private Integer maxLevel;
+    private Boolean inTournament;
+    private Integer level;
+    private Integer coins;
+}
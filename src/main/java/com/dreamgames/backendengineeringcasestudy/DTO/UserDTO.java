@@ -0,0 +1,22 @@
+package com.dreamgames.backendengineeringcasestudy.DTO;
+
+import lombok.*;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserDTO {
+    private Long id;
+    private String userId;
+    private String userName;
+    private int level;
+    private int coins;
+    private String country;
+    private Date createdAt;
+    private boolean inTournament;
+    private boolean rewardClaimed;
+}
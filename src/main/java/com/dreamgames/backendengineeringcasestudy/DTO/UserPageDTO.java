@@ -0,0 +1,15 @@
+package com.dreamgames.backendengineeringcasestudy.DTO;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserPageDTO {
+    private List<UserDTO> users;
+    private Long nextAfterId;
+}
@@ -0,0 +1,87 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * Responses of requests sent with an Idempotency-Key, kept for ttl-ms and for at most max-entries keys.
+ * A key is registered with a pending response when its first request starts, so duplicates arriving
+ * while it runs wait for that response instead of running the request again.
+ */
+public class IdempotencyCache {
+
+    /**
+     * A response as it was sent to the client.
+     */
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    // Entries expire in insertion order, since all of them live for the same time
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    LongSupplier clock = System::currentTimeMillis;
+
+    public IdempotencyCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Registers the first request of a key.
+     *
+     * @param key The idempotency key, scoped to the request it was sent with.
+     * @param response The response the request will complete.
+     * @return The response of an earlier request with the same key, finished or still running, or null if the request
+     *         is the first and has to run.
+     */
+    public synchronized CompletableFuture<StoredResponse> putIfAbsent(String key, CompletableFuture<StoredResponse> response) {
+        long now = clock.getAsLong();
+        evictExpired(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return existing.response;
+        }
+        if (entries.size() >= maxEntries) {
+            // Drops the oldest key to stay within the bound, a late retry of it runs again
+            Iterator<Entry> oldest = entries.values().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        entries.put(key, new Entry(response, now + ttlMillis));
+        return null;
+    }
+
+    /**
+     * Forgets the response of a key, so the next request with it runs again.
+     *
+     * @param key The idempotency key, scoped to the request it was sent with.
+     * @param response The response registered for the key.
+     */
+    public synchronized void remove(String key, CompletableFuture<StoredResponse> response) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.response == response) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * @return The number of keys held, including expired keys not evicted yet.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext() && oldest.next().expiresAt <= now) {
+            oldest.remove();
+        }
+    }
+
+    private record Entry(CompletableFuture<StoredResponse> response, long expiresAt) {
+    }
+}
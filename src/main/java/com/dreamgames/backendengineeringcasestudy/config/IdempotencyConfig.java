@@ -0,0 +1,36 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Deduplicates retries of the endpoints that change a user's tournament state.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Value("${api.idempotency.ttl-ms:600000}")
+    private long ttlMillis;
+
+    @Value("${api.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${api.idempotency.wait-ms:10000}")
+    private long waitMillis;
+
+    @Bean
+    public IdempotencyCache idempotencyCache() {
+        return new IdempotencyCache(ttlMillis, maxEntries);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyCache idempotencyCache) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyCache, waitMillis));
+        registration.addUrlPatterns("/api/tournament/completeLevel/*", "/api/tournament/enterTournament/*",
+                "/api/tournament/claimReward/*");
+        return registration;
+    }
+}
@@ -0,0 +1,97 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers retried POST requests that carry an Idempotency-Key header with the response of their first attempt.
+ * Duplicates arriving while the first attempt runs wait for it for at most wait-ms. Server errors and conflicts
+ * are handed to the waiting duplicates but not kept, so a later retry runs again.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotency-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyCache cache;
+    private final long waitMillis;
+
+    public IdempotencyFilter(IdempotencyCache cache, long waitMillis) {
+        this.cache = cache;
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + HEADER);
+            return;
+        }
+        // The same key sent to another endpoint or for another user is a different request
+        String scopedKey = request.getRequestURI() + " " + key;
+
+        CompletableFuture<IdempotencyCache.StoredResponse> own = new CompletableFuture<>();
+        CompletableFuture<IdempotencyCache.StoredResponse> earlier = cache.putIfAbsent(scopedKey, own);
+        if (earlier != null) {
+            replay(earlier, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            cache.remove(scopedKey, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+        int status = wrapper.getStatus();
+        if (status >= 500 || status == HttpStatus.CONFLICT.value()) {
+            cache.remove(scopedKey, own);
+        }
+        own.complete(new IdempotencyCache.StoredResponse(status, wrapper.getContentType(), wrapper.getContentAsByteArray()));
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(CompletableFuture<IdempotencyCache.StoredResponse> earlier, HttpServletResponse response)
+            throws ServletException, IOException {
+        IdempotencyCache.StoredResponse stored;
+        try {
+            stored = earlier.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            response.sendError(HttpStatus.CONFLICT.value(), "A request with the same " + HEADER + " is still running");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        } catch (ExecutionException e) {
+            throw new ServletException("The request with the same " + HEADER + " failed", e.getCause());
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+}
@@ -0,0 +1,145 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Time of the last write a client has seen, so its reads are only served by replicas that already have it.
+ * Clients receive the time in the X-Last-Write response header after a request that wrote to the primary
+ * and send it back on their next requests. Within a request, the time is updated by every committed write:
+ * after the commit of a transaction that ran an insert, update or delete, or right away for a statement
+ * that committed on its own. Read-only work and rolled back transactions leave it as it is.
+ */
+public final class ReadYourWrites {
+
+    public static final String HEADER = "X-Last-Write";
+
+    private static final ThreadLocal<Context> CONTEXT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Starts tracking the writes of the current thread.
+     *
+     * @param lastWrite The time of the last write the client has seen, or null if it has not written.
+     * @param response The response to report new writes in, or null to not report them.
+     */
+    public static void open(Long lastWrite, HttpServletResponse response) {
+        CONTEXT.set(new Context(lastWrite, response));
+    }
+
+    /**
+     * Stops tracking the writes of the current thread.
+     */
+    public static void close() {
+        CONTEXT.remove();
+    }
+
+    /**
+     * @return The time of the last write seen by the current client, or null if it has not written or is not tracked.
+     */
+    public static Long lastWrite() {
+        Context context = CONTEXT.get();
+        return context != null ? context.lastWrite : null;
+    }
+
+    /**
+     * Wraps a primary connection, so the statements run on it update the write time of the current client
+     * once they are committed.
+     *
+     * @param connection The primary connection.
+     * @return The wrapped connection, or the connection itself if the current thread is not tracked.
+     */
+    static Connection track(Connection connection) {
+        Context context = CONTEXT.get();
+        if (context == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                        return trackStatement(statement, method.getReturnType(), connection, context);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object trackStatement(Statement statement, Class<?> type, Connection connection, Context context) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = invoke(statement, method, args);
+                    if (isWrite(method, result)) {
+                        wrote(connection, context);
+                    }
+                    return result;
+                });
+    }
+
+    private static boolean isWrite(Method method, Object result) {
+        return switch (method.getName()) {
+            case "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch" -> true;
+            // Returns false for statements that produce an update count instead of a result set
+            case "execute" -> Boolean.FALSE.equals(result);
+            default -> false;
+        };
+    }
+
+    private static void wrote(Connection connection, Context context) throws SQLException {
+        if (connection.getAutoCommit()) {
+            context.recordWrite(System.currentTimeMillis());
+        } else if (TransactionSynchronizationManager.isSynchronizationActive() && context.pendingCommit.add(connection)) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    context.recordWrite(System.currentTimeMillis());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    context.pendingCommit.remove(connection);
+                }
+            });
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class Context {
+        // Connections whose transaction already records the write time when it commits
+        private final Set<Connection> pendingCommit = Collections.newSetFromMap(new IdentityHashMap<>());
+        private Long lastWrite;
+        private final HttpServletResponse response;
+
+        private Context(Long lastWrite, HttpServletResponse response) {
+            this.lastWrite = lastWrite;
+            this.response = response;
+        }
+
+        private void recordWrite(long at) {
+            lastWrite = at;
+            if (response != null && !response.isCommitted()) {
+                response.setHeader(HEADER, Long.toString(at));
+            }
+        }
+    }
+}
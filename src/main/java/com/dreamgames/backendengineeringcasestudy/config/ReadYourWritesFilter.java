@@ -0,0 +1,37 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Tracks the writes of each request, starting from the last write time the client sent in the X-Last-Write header.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.open(parse(request.getHeader(ReadYourWrites.HEADER)), response);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.close();
+        }
+    }
+
+    private static Long parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures how far each replica is behind the primary. The primary's replication_heartbeat row is set to the
+ * current time on every interval; the value a replica returns is the time up to which it has replayed the primary.
+ * A replica is used only while that time is at most max-lag-ms old.
+ */
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> replicas;
+    private final long intervalMillis;
+    private final long maxLagMillis;
+
+    // Heartbeat time read from each replica, 0 until it was read or after reading it failed
+    private final AtomicLongArray replayedUpTo;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, List<? extends DataSource> replicas, long intervalMillis, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicas.stream().map(JdbcTemplate::new).toList();
+        this.intervalMillis = intervalMillis;
+        this.maxLagMillis = maxLagMillis;
+        this.replayedUpTo = new AtomicLongArray(replicas.size());
+    }
+
+    /**
+     * Starts writing and reading heartbeats every interval.
+     */
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::probeQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops writing and reading heartbeats.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Checks whether a replica can serve a read of a client.
+     *
+     * @param replica The index of the replica.
+     * @param lastWrite The time of the last write the client has seen, or null if it has not written.
+     * @return true if the replica is within the lag limit and has replayed the client's last write.
+     */
+    public boolean isUsable(int replica, Long lastWrite) {
+        long replayed = replayedUpTo.get(replica);
+        return System.currentTimeMillis() - replayed <= maxLagMillis && (lastWrite == null || lastWrite < replayed);
+    }
+
+    /**
+     * Writes a heartbeat to the primary and reads the latest heartbeat every replica has replayed.
+     */
+    void probe() {
+        primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", System.currentTimeMillis());
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                Long beatAt = replicas.get(i).queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1", Long.class);
+                replayedUpTo.set(i, beatAt != null ? beatAt : 0);
+            } catch (RuntimeException e) {
+                replayedUpTo.set(i, 0);
+                System.out.println("Replica " + i + " could not be checked: " + e.getMessage());
+            }
+        }
+    }
+
+    private void probeQuietly() {
+        try {
+            probe();
+        } catch (RuntimeException e) {
+            System.out.println("Replication heartbeat failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads that may be served by a read replica in a read-only transaction. Only these reads are routed
+ * to replicas; reads inside a write transaction stay in it. Entities loaded from a replica may be older than
+ * the second-level cache, so they are not put into it.
+ */
+@Component
+public class ReplicaReads {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Runs a read that may be served by a replica.
+     *
+     * @param read The read.
+     * @return The result of the read.
+     */
+    public <T> T execute(Supplier<T> read) {
+        if (ACTIVE.get() != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return read.get();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return readOnlyTransaction.execute(status -> {
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+                return read.get();
+            });
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    /**
+     * @return true if the current thread runs a read that may be served by a replica.
+     */
+    static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single datasource with one that routes replica reads to the pools of datasource.replica.urls.
+ * Only active when replica URLs are configured.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.urls")
+public class ReplicaRoutingConfig {
+
+    @Value("${datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.replica.heartbeat-interval-ms:500}")
+    private long heartbeatIntervalMillis;
+
+    @Value("${datasource.replica.max-lag-ms:2000}")
+    private long maxLagMillis;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+        List<HikariDataSource> replicas = replicas(properties);
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(primaryDataSource, replicas, heartbeatIntervalMillis, maxLagMillis);
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, lagMonitor);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        // Connections are taken when the first statement runs, after the transaction marked itself read-only
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+
+    private List<HikariDataSource> replicas(DataSourceProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().url(url.trim()).type(HikariDataSource.class).build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return replicas;
+    }
+}
@@ -0,0 +1,85 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends reads that services run through ReplicaReads to the replicas in turn, skipping replicas that lag
+ * behind or have not replayed the client's last write, and everything else to the primary. The routing
+ * reads the state of the current transaction, so connections must be requested lazily, after it began.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+    private final DataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReplicaLagMonitor lagMonitor;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource replica = replica();
+        if (replica != null) {
+            return replica.getConnection();
+        }
+        return write() ? ReadYourWrites.track(primary.getConnection()) : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource replica = replica();
+        if (replica != null) {
+            return replica.getConnection(username, password);
+        }
+        Connection connection = primary.getConnection(username, password);
+        return write() ? ReadYourWrites.track(connection) : connection;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        lagMonitor.start();
+    }
+
+    @Override
+    public void destroy() {
+        lagMonitor.stop();
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    ReplicaLagMonitor getLagMonitor() {
+        return lagMonitor;
+    }
+
+    private DataSource replica() {
+        if (replicas.isEmpty() || !ReplicaReads.isActive() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        Long lastWrite = ReadYourWrites.lastWrite();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = (start + i) % replicas.size();
+            if (lagMonitor.isUsable(replica, lastWrite)) {
+                return replicas.get(replica);
+            }
+        }
+        return null;
+    }
+
+    private static boolean write() {
+        return !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
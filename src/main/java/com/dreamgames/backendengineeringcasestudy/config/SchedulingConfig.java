@@ -0,0 +1,15 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the scheduled tournament jobs: creating the daily tournament and finalizing it when it ends.
+ * Tests that drive the jobs themselves turn it off with tournament.scheduling.enabled=false.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "tournament.scheduling.enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -1,16 +1,24 @@
 package com.dreamgames.backendengineeringcasestudy.controller;
 
+import com.dreamgames.backendengineeringcasestudy.DTO.FinalizationReportDTO;
 import com.dreamgames.backendengineeringcasestudy.DTO.GroupLeaderboardDTO;
 import com.dreamgames.backendengineeringcasestudy.DTO.TournamentGroupDTO;
 import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
 
+import com.dreamgames.backendengineeringcasestudy.service.LeaderboardStreams;
 import com.dreamgames.backendengineeringcasestudy.service.TournamentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/tournament")
@@ -19,6 +27,15 @@ public class TournamentController {
     @Autowired
     private TournamentService tournamentService;
 
+    @Autowired
+    private LeaderboardStreams leaderboardStreams;
+
+    @Value("${tournament.groups.max-page-size:500}")
+    private int maxGroupPageSize;
+
+    @Value("${tournament.group-leaderboard.max-batch-size:100}")
+    private int maxLeaderboardBatchSize;
+
     /**
      * Creates a new tournament with the specified name.
      *
@@ -39,7 +56,11 @@ public class TournamentController {
      */
     @PostMapping("/end")
     public ResponseEntity<String> endTournament() {
-        tournamentService.endCurrentTournament();
+        Optional<FinalizationReportDTO> report = tournamentService.endTournament();
+        if (report.isPresent()) {
+            return ResponseEntity.ok("Tournament ended. " + report.get().getRowsUpdated() + " users finalized in "
+                    + report.get().getElapsedMillis() + " ms");
+        }
         return ResponseEntity.ok("Tournament ended");
     }
 
@@ -51,7 +72,12 @@ public class TournamentController {
      */
     @PostMapping("/enterTournament/{userId}")
     public ResponseEntity<String> enterTournament(@PathVariable String userId) {
-        boolean success = tournamentService.enterTournament(userId);
+        boolean success;
+        try {
+            success = tournamentService.enterTournament(userId);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("User was changed concurrently, try again.");
+        }
         if (success) {
             return ResponseEntity.ok("User entered tournament successfully.");
         }
@@ -73,13 +99,21 @@ public class TournamentController {
     }
 
     /**
-     * Retrieves the active tournament groups along with their users.
+     * Retrieves the active tournament groups along with their users. Groups are paginated by ID
+     * when either parameter is given, otherwise all groups are returned.
      *
+     * @param afterGroupId The ID of the last group of the previous page.
+     * @param limit The maximum number of groups to return, capped at the configured maximum page size.
      * @return ResponseEntity containing a list of TournamentGroupDTO objects.
      */
     @GetMapping("/getGroups")
-    public ResponseEntity<List<TournamentGroupDTO>> getActiveTournamentGroupsWithUsers() {
-        List<TournamentGroupDTO> groups = tournamentService.getActiveTournamentGroupsWithUsers();
+    public ResponseEntity<List<TournamentGroupDTO>> getActiveTournamentGroupsWithUsers(
+            @RequestParam(required = false) Long afterGroupId, @RequestParam(required = false) Integer limit) {
+        if (afterGroupId == null && limit == null) {
+            return ResponseEntity.ok(tournamentService.getActiveTournamentGroupsWithUsers());
+        }
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, maxGroupPageSize)) : maxGroupPageSize;
+        List<TournamentGroupDTO> groups = tournamentService.getActiveTournamentGroupsWithUsers(afterGroupId, pageSize);
         return ResponseEntity.ok(groups);
     }
 
@@ -122,6 +156,37 @@ public class TournamentController {
         return ResponseEntity.ok(leaderboard);
     }
 
+    /**
+     * Streams the leaderboard of a group in the current tournament as Server-Sent Events.
+     * Changes are coalesced, so at most one board is sent per tick.
+     *
+     * @param groupId The ID of the group for which to stream the leaderboard.
+     * @return ResponseEntity containing the event stream, or a 503 status if the node serves too many streams.
+     */
+    @GetMapping(value = "/groupLeaderboard/{groupId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamGroupLeaderboard(@PathVariable Long groupId) {
+        try {
+            return ResponseEntity.ok(leaderboardStreams.subscribeGroup(groupId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Retrieves the leaderboards of several groups in the current tournament.
+     *
+     * @param groupIds The IDs of the groups for which to fetch the leaderboards.
+     * @return ResponseEntity containing the leaderboard of each group by group ID, or a 400 status if too many groups are requested.
+     */
+    @GetMapping("/groupLeaderboards")
+    public ResponseEntity<Map<Long, List<GroupLeaderboardDTO>>> getGroupLeaderboards(@RequestParam List<Long> groupIds) {
+        if (groupIds.size() > maxLeaderboardBatchSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<Long, List<GroupLeaderboardDTO>> leaderboards = tournamentService.getGroupLeaderboards(groupIds);
+        return ResponseEntity.ok(leaderboards);
+    }
+
     /**
      * Retrieves the leaderboard of countries based on the scores of users in the current tournament.
      *
@@ -133,6 +198,21 @@ public class TournamentController {
         return ResponseEntity.ok(leaderboard);
     }
 
+    /**
+     * Streams the country leaderboard of the current tournament as Server-Sent Events.
+     * Changes are coalesced, so at most one board is sent per tick.
+     *
+     * @return ResponseEntity containing the event stream, or a 503 status if the node serves too many streams.
+     */
+    @GetMapping(value = "/countryLeaderboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCountryLeaderboard() {
+        try {
+            return ResponseEntity.ok(leaderboardStreams.subscribeCountries());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     /**
      * Retrieves the rank of a specific user in the current tournament.
      *
@@ -1,11 +1,21 @@
 package com.dreamgames.backendengineeringcasestudy.controller;
 
+import com.dreamgames.backendengineeringcasestudy.DTO.BulkCreateReportDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.BulkUpdateReportDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.UserBulkUpdateDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.UserDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.UserPageDTO;
 import com.dreamgames.backendengineeringcasestudy.entity.User;
 import com.dreamgames.backendengineeringcasestudy.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -15,6 +25,12 @@ public class UserController {
     @Autowired
     private UserService service;
 
+    @Value("${user.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${user.bulk.max-names:10000}")
+    private int maxBulkNames;
+
     /**
      * Creates a new user with the specified username.
      *
@@ -27,6 +43,38 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * Creates a user for each username in a JSON array.
+     *
+     * @param userNames The usernames of the new users.
+     * @return ResponseEntity containing the number of users created and the rate they were created at,
+     * or a 400 status if more names are sent than the configured maximum.
+     */
+    @PostMapping(value = "/createUsers", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkCreateReportDTO> createUsers(@RequestBody List<String> userNames) {
+        if (userNames.size() > maxBulkNames) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.createUsers(userNames.iterator()));
+    }
+
+    /**
+     * Creates a user for each line of a plain text body. Lines are read while the users are created,
+     * so the body may be of any size.
+     *
+     * @param body The request body, one username per line.
+     * @return ResponseEntity containing the number of users created and the rate they were created at.
+     * @throws IOException If reading the body fails.
+     */
+    @PostMapping(value = "/createUsers", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<BulkCreateReportDTO> createUsersFromLines(InputStream body) throws IOException {
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(service.createUsers(lines.lines().iterator()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     /**
      * Retrieves a user by their user ID.
      *
@@ -48,14 +96,40 @@ public class UserController {
     /**
      * Retrieves all users.
      *
-     * @return ResponseEntity containing a list of all User entities.
+     * @return ResponseEntity containing a list of all users.
      */
     @GetMapping("/getAllUsers")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = service.getAllUsers();
+    public ResponseEntity<List<UserDTO>> getAllUsers() {
+        List<UserDTO> users = service.getAllUsers();
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Retrieves a page of users ordered by their database ID.
+     *
+     * @param afterId The nextAfterId of the previous page, omitted for the first page.
+     * @param limit The maximum number of users to return, capped at the configured maximum page size.
+     * @return ResponseEntity containing the users of the page and the cursor of the next page.
+     */
+    @GetMapping("/getUsers")
+    public ResponseEntity<UserPageDTO> getUsers(@RequestParam(required = false) Long afterId,
+                                                @RequestParam(required = false) Integer limit) {
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, maxPageSize)) : maxPageSize;
+        return ResponseEntity.ok(service.getUsersPage(afterId, pageSize));
+    }
+
+    /**
+     * Streams all users as newline-delimited JSON.
+     *
+     * @return ResponseEntity whose body writes one UserDTO per line while the users are read.
+     */
+    @GetMapping(value = "/exportUsers", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(service::exportUsers);
+    }
+
     /**
      * Updates the level of the user with the specified ID.
      *
@@ -72,6 +146,21 @@ public class UserController {
         }
     }
 
+    /**
+     * Sets the level and coins of the users that match the filters.
+     *
+     * @param update The filters and the values to set.
+     * @return ResponseEntity containing the number of users updated, or a 400 status if no value to set is given.
+     */
+    @PostMapping("/bulkUpdate")
+    public ResponseEntity<BulkUpdateReportDTO> updateUsers(@RequestBody UserBulkUpdateDTO update) {
+        try {
+            return ResponseEntity.ok(service.updateUsers(update));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * For testing purposes only. Updates all users to a specific state.
      *
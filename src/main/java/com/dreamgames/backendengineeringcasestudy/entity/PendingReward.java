@@ -0,0 +1,31 @@
+package com.dreamgames.backendengineeringcasestudy.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "pending_reward", indexes = @Index(name = "idx_pending_reward_user", columnList = "user_id, claimed"))
+public class PendingReward {
+
+    // One reward per group membership, written when the tournament is settled
+    @Id
+    @Column(name = "user_group_id")
+    private Long userGroupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "tournament_id", nullable = false)
+    private Long tournamentId;
+
+    @Column(name = "coins", nullable = false)
+    private int coins;
+
+    @Column(name = "claimed", nullable = false)
+    private boolean claimed;
+}
@@ -2,6 +2,8 @@ package com.dreamgames.backendengineeringcasestudy.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Date;
 import java.util.List;
@@ -12,7 +14,9 @@ import java.util.List;
 @AllArgsConstructor
 @Getter
 @Setter
-@Table(name = "tournament")
+// Only the end time of a tournament ever changes, so cached copies are invalidated instead of locked
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "tournament")
+@Table(name = "tournament", indexes = @Index(name = "idx_tournament_window", columnList = "start_time, end_time"))
 public class Tournament {
 
     @Id
@@ -0,0 +1,48 @@
+package com.dreamgames.backendengineeringcasestudy.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "tournament_finalization")
+public class TournamentFinalization {
+
+    @Id
+    @Column(name = "tournament_id")
+    private Long tournamentId;
+
+    // Users are finalized in ranges of their IDs, this is the last ID that has been processed
+    @Column(name = "last_user_id", nullable = false)
+    private long lastUserId;
+
+    @Column(name = "rows_updated", nullable = false)
+    private long rowsUpdated;
+
+    @Column(name = "started_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date startedAt;
+
+    @Column(name = "completed_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date completedAt;
+
+    // Set once the rewards of every group have been written to pending_reward
+    @Column(name = "settled_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date settledAt;
+
+    // Node currently finalizing the tournament, and until when others leave it to that node
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date leaseUntil;
+}
@@ -2,6 +2,10 @@ package com.dreamgames.backendengineeringcasestudy.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.Date;
 
@@ -11,12 +15,18 @@ import java.util.Date;
 @AllArgsConstructor
 @Getter
 @Setter
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-natural-id")
 @Table(name = "user")
 public class User {
+    // Pooled sequence, so inserts can be batched and only every 50th insert reads the sequence.
+    // The V1_1 migration seeds it above the IDs that AUTO_INCREMENT handed out before
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
+    @NaturalId
     @Column(name = "user_id", nullable = false, unique = true)
     private String userId;
 
@@ -41,5 +51,10 @@ public class User {
 
     @Column(name = "reward_claimed", nullable = false)
     private boolean rewardClaimed;
+
+    // Writes of a stale copy of the user fail instead of overwriting concurrent changes
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 }
 
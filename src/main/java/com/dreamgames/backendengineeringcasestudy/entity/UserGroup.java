@@ -10,7 +10,10 @@ import lombok.*;
 @AllArgsConstructor
 @Getter
 @Setter
-@Table(name = "user_group")
+@Table(name = "user_group", indexes = {
+        @Index(name = "idx_user_group_user_active_version", columnList = "user_id, active, group_id, score, version"),
+        @Index(name = "idx_user_group_group_score", columnList = "group_id, score, user_id, active")
+})
 public class UserGroup {
 
     @Id
@@ -31,4 +34,8 @@ public class UserGroup {
 
     @Column(name = "active", nullable = false)
     private boolean active = true;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 }
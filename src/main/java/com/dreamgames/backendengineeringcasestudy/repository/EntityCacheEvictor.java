@@ -0,0 +1,69 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts entities from the second-level cache after they were changed by JDBC statements that Hibernate does not see.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evicts a user from the second-level cache.
+     *
+     * @param id The database ID of the user.
+     */
+    public void evictUser(Long id) {
+        evictUsers(List.of(id));
+    }
+
+    /**
+     * Evicts users from the second-level cache. Inside a transaction they are evicted again after
+     * it commits, so a concurrent read of the old row can not put it back into the cache for good.
+     *
+     * @param ids The database IDs of the users.
+     */
+    public void evictUsers(Collection<Long> ids) {
+        evict(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(ids);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts every user from the second-level cache, now and again after the current transaction completes.
+     */
+    public void evictAllUsers() {
+        entityManagerFactory.getCache().evict(User.class);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entityManagerFactory.getCache().evict(User.class);
+                }
+            });
+        }
+    }
+
+    private void evict(Collection<Long> ids) {
+        for (Long id : ids) {
+            entityManagerFactory.getCache().evict(User.class, id);
+        }
+    }
+}
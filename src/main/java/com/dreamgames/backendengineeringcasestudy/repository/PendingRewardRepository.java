@@ -0,0 +1,17 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import com.dreamgames.backendengineeringcasestudy.entity.PendingReward;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PendingRewardRepository extends JpaRepository<PendingReward, Long> {
+    List<PendingReward> findByUserIdAndClaimedFalse(Long userId);
+
+    @Modifying
+    @Query("update PendingReward r set r.claimed = true where r.userGroupId = :userGroupId and r.claimed = false")
+    int markClaimed(@Param("userGroupId") Long userGroupId);
+}
@@ -0,0 +1,43 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import com.dreamgames.backendengineeringcasestudy.entity.TournamentFinalization;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+public interface TournamentFinalizationRepository extends JpaRepository<TournamentFinalization, Long> {
+
+    // Succeeds if the finalization is not completed and nobody else holds an unexpired lease on it
+    @Transactional
+    @Modifying
+    @Query("update TournamentFinalization f set f.leaseOwner = :owner, f.leaseUntil = :leaseUntil " +
+            "where f.tournamentId = :tournamentId and f.completedAt is null " +
+            "and (f.leaseOwner is null or f.leaseOwner = :owner or f.leaseUntil < :now)")
+    int claim(@Param("tournamentId") Long tournamentId, @Param("owner") String owner,
+              @Param("now") Date now, @Param("leaseUntil") Date leaseUntil);
+
+    // Locks the row until the transaction ends, so nobody can take the lease over while the step runs
+    @Modifying
+    @Query("update TournamentFinalization f set f.leaseUntil = :leaseUntil " +
+            "where f.tournamentId = :tournamentId and f.leaseOwner = :owner")
+    int extendLease(@Param("tournamentId") Long tournamentId, @Param("owner") String owner, @Param("leaseUntil") Date leaseUntil);
+
+    @Modifying
+    @Query("update TournamentFinalization f set f.lastUserId = :lastUserId, f.rowsUpdated = :rowsUpdated " +
+            "where f.tournamentId = :tournamentId")
+    int recordProgress(@Param("tournamentId") Long tournamentId, @Param("lastUserId") long lastUserId,
+                       @Param("rowsUpdated") long rowsUpdated);
+
+    @Modifying
+    @Query("update TournamentFinalization f set f.settledAt = :settledAt where f.tournamentId = :tournamentId")
+    int markSettled(@Param("tournamentId") Long tournamentId, @Param("settledAt") Date settledAt);
+
+    @Modifying
+    @Query("update TournamentFinalization f set f.completedAt = :completedAt, f.leaseOwner = null, f.leaseUntil = null " +
+            "where f.tournamentId = :tournamentId")
+    int markCompleted(@Param("tournamentId") Long tournamentId, @Param("completedAt") Date completedAt);
+}
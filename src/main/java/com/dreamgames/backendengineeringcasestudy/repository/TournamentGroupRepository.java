@@ -1,12 +1,36 @@
 package com.dreamgames.backendengineeringcasestudy.repository;
 
+import com.dreamgames.backendengineeringcasestudy.DTO.GroupMemberRowDTO;
 import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
 import com.dreamgames.backendengineeringcasestudy.entity.TournamentGroup;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface TournamentGroupRepository extends JpaRepository<TournamentGroup, Long> {
+public interface TournamentGroupRepository extends JpaRepository<TournamentGroup, Long>, TournamentGroupRepositoryCustom {
     List<TournamentGroup> findByTournament(Tournament tournament);
 
+    @Query("select g.id, u.country from TournamentGroup g left join g.userGroups ug left join ug.user u " +
+            "where g.tournament.id = :tournamentId")
+    List<Object[]> findGroupMemberCountries(@Param("tournamentId") Long tournamentId);
+
+    @Query("select g.id from TournamentGroup g where g.tournament.id = :tournamentId and g.id > :afterGroupId order by g.id")
+    List<Long> findGroupIdsAfter(@Param("tournamentId") Long tournamentId, @Param("afterGroupId") Long afterGroupId, Pageable pageable);
+
+    @Query("select new com.dreamgames.backendengineeringcasestudy.DTO.GroupMemberRowDTO(" +
+            "g.id, g.competitionStarted, u.userId, u.userName, u.level, u.coins, u.country, ug.score) " +
+            "from TournamentGroup g left join g.userGroups ug left join ug.user u " +
+            "where g.tournament.id = :tournamentId order by g.id, ug.id")
+    List<GroupMemberRowDTO> findMemberRowsByTournament(@Param("tournamentId") Long tournamentId);
+
+    @Query("select new com.dreamgames.backendengineeringcasestudy.DTO.GroupMemberRowDTO(" +
+            "g.id, g.competitionStarted, u.userId, u.userName, u.level, u.coins, u.country, ug.score) " +
+            "from TournamentGroup g left join g.userGroups ug left join ug.user u " +
+            "where g.id in :groupIds order by g.id, ug.id")
+    List<GroupMemberRowDTO> findMemberRowsByGroupIds(@Param("groupIds") Collection<Long> groupIds);
+
 }
@@ -0,0 +1,33 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import java.util.Map;
+
+/**
+ * Reservations of group slots in the database, which decide whether a user can join a group
+ * regardless of what the matchmaking index of a node assumes. A reservation is given back by rolling back
+ * the transaction it was made in.
+ */
+public interface TournamentGroupRepositoryCustom {
+
+    /**
+     * Reserves the slot of a country in a group if the group is not full and has no member of that country yet.
+     *
+     * @param groupId The ID of the group.
+     * @param country The country of the joining user.
+     * @param groupSize The maximum number of members of a group.
+     * @return The number of members of the group including the reserved slot, or 0 if the slot could not be reserved.
+     */
+    int reserveSlot(Long groupId, String country, int groupSize);
+
+    /**
+     * Finds groups of a tournament that have a free slot for a country, fullest first. Used when the matchmaking
+     * index of a node knows no such group, e.g. because the groups were created by another node.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param country The country of the joining user.
+     * @param groupSize The maximum number of members of a group.
+     * @param limit The maximum number of groups to return.
+     * @return The countries of the members of each group, delimited by semicolons, by group ID.
+     */
+    Map<Long, String> findOpenGroups(Long tournamentId, String country, int groupSize, int limit);
+}
@@ -0,0 +1,43 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reservations go through JDBC on columns the entity does not map, so they neither evict the group region
+ * of the second-level cache nor conflict with cached copies of the group. The countries of the members are
+ * kept delimited by semicolons, e.g. ";Turkey;France;".
+ */
+public class TournamentGroupRepositoryImpl implements TournamentGroupRepositoryCustom {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int reserveSlot(Long groupId, String country, int groupSize) {
+        int updated = jdbcTemplate.update("UPDATE tournament_group SET member_count = member_count + 1, " +
+                        "member_countries = CONCAT(member_countries, ?, ';') " +
+                        "WHERE id = ? AND member_count < ? AND member_countries NOT LIKE ?",
+                country, groupId, groupSize, "%;" + country + ";%");
+        if (updated == 0) {
+            return 0;
+        }
+        // Within a transaction the row stays locked by the update, so no other reservation happened in between
+        return jdbcTemplate.queryForObject("SELECT member_count FROM tournament_group WHERE id = ?", Integer.class, groupId);
+    }
+
+    @Override
+    public Map<Long, String> findOpenGroups(Long tournamentId, String country, int groupSize, int limit) {
+        Map<Long, String> groups = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, member_countries FROM tournament_group " +
+                        "WHERE tournament_id = ? AND member_count < ? AND member_countries NOT LIKE ? " +
+                        "ORDER BY member_count DESC, id LIMIT ?",
+                rs -> {
+                    groups.put(rs.getLong(1), rs.getString(2));
+                }, tournamentId, groupSize, "%;" + country + ";%", limit);
+        return groups;
+    }
+}
@@ -2,6 +2,26 @@ package com.dreamgames.backendengineeringcasestudy.repository;
 
 import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 
 public interface TournamentRepository extends JpaRepository<Tournament, Long> {
+    Optional<Tournament> findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(Date startedBefore, Date endsAfter);
+    boolean existsByStartTime(Date startTime);
+
+    @Query("select t from Tournament t where t.endTime <= :now and not exists (select f from TournamentFinalization f " +
+            "where f.tournamentId = t.id and f.completedAt is not null) order by t.endTime, t.id")
+    List<Tournament> findEndedAndNotFinalized(@Param("now") Date now);
+
+    // A single statement that also evicts the tournaments cached on this node, other nodes see it within the region TTL
+    @Transactional
+    @Modifying
+    @Query("update Tournament t set t.endTime = :endTime where t.id = :id")
+    int updateEndTime(@Param("id") Long id, @Param("endTime") Date endTime);
 }
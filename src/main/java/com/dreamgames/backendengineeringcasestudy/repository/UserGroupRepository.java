@@ -3,7 +3,12 @@ package com.dreamgames.backendengineeringcasestudy.repository;
 import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
 import com.dreamgames.backendengineeringcasestudy.entity.UserGroup;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +18,41 @@ public interface UserGroupRepository extends JpaRepository<UserGroup, String> {
     List<UserGroup> findByGroup_Tournament(Tournament tournament);
     Optional<UserGroup> findByUserIdAndActive(Long userId, boolean active);
 
+    // The competition flag is checked by the query, groups are cached and may be started by another node
+    @Query("select ug from UserGroup ug join ug.group g where ug.user.id = :userId and ug.active = true " +
+            "and g.competitionStarted = true")
+    Optional<UserGroup> findActiveInStartedGroup(@Param("userId") Long userId);
+
+    @Query("select u.userId, ug.id, g.id, u.country, ug.score from UserGroup ug join ug.user u join ug.group g " +
+            "where g.tournament.id = :tournamentId")
+    List<Object[]> findRankEntries(@Param("tournamentId") Long tournamentId);
+
+    @Query("select u.userId, ug.id, g.id, u.country, ug.score from UserGroup ug join ug.user u join ug.group g " +
+            "where g.tournament.id = :tournamentId and u.userId = :userId")
+    List<Object[]> findRankEntry(@Param("tournamentId") Long tournamentId, @Param("userId") String userId);
+
+    @Query("select g.id, u.userId, u.userName, u.country, ug.score from UserGroup ug join ug.user u join ug.group g " +
+            "where g.id in :groupIds and g.tournament.id = :tournamentId order by g.id, ug.score desc, ug.id")
+    List<Object[]> findLeaderboardRows(@Param("tournamentId") Long tournamentId, @Param("groupIds") Collection<Long> groupIds);
+
+    @Query("select u.country, sum(ug.score) from UserGroup ug join ug.user u join ug.group g " +
+            "where g.tournament.id = :tournamentId group by u.country")
+    List<Object[]> sumScoresByCountry(@Param("tournamentId") Long tournamentId);
+
+    @Transactional
+    @Modifying
+    @Query("update UserGroup ug set ug.score = ug.score + :score, ug.version = ug.version + 1 where ug.active = true " +
+            "and ug.user.id in (select u.id from User u where u.userId = :userId and u.inTournament = true) " +
+            "and ug.group.id in (select g.id from TournamentGroup g where g.competitionStarted = true)")
+    int incrementActiveScore(@Param("userId") String userId, @Param("score") int score);
+
+    @Query("select ug.id, ug.user.id, ug.group.id, ug.score from UserGroup ug " +
+            "where ug.group.tournament.id = :tournamentId and ug.active = true " +
+            "order by ug.group.id, ug.score desc, ug.id")
+    List<Object[]> findSettlementRows(@Param("tournamentId") Long tournamentId);
+
+    @Modifying
+    @Query("update UserGroup ug set ug.active = false, ug.version = ug.version + 1 where ug.id = :id")
+    int deactivate(@Param("id") Long id);
+
 }
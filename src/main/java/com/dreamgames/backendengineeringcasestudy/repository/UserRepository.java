@@ -1,8 +1,22 @@
 package com.dreamgames.backendengineeringcasestudy.repository;
 
 import com.dreamgames.backendengineeringcasestudy.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    User findByUserId(String userId);
+import java.util.List;
+
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("select coalesce(max(u.id), 0) from User u")
+    long findMaxId();
+
+    @Modifying
+    @Query("update User u set u.inTournament = false, u.version = u.version + 1 where u.id between :fromId and :toId and u.inTournament = true " +
+            "and u.id in (select ug.user.id from UserGroup ug where ug.group.tournament.id = :tournamentId and ug.active = true)")
+    int clearInTournament(@Param("tournamentId") Long tournamentId, @Param("fromId") long fromId, @Param("toId") long toId);
 }
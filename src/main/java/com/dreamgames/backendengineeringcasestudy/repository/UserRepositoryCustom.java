@@ -0,0 +1,61 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import com.dreamgames.backendengineeringcasestudy.DTO.UserBulkUpdateDTO;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+
+import java.util.List;
+
+/**
+ * User lookups served from the second-level cache, counter updates that keep the cache consistent,
+ * and batched inserts that bypass it.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Retrieves a user by their natural ID through the second-level cache.
+     *
+     * @param userId The user ID of the user.
+     * @return The user, or null if no such user exists.
+     */
+    User findByUserId(String userId);
+
+    /**
+     * Adds levels and coins to a user in a single statement if the user is still at the given version,
+     * and evicts the user from the second-level cache either way.
+     *
+     * @param id The database ID of the user.
+     * @param version The version of the user the increment is based on.
+     * @param levels The number of levels to add.
+     * @param coins The number of coins to add.
+     * @return The number of updated rows, 0 if the user does not exist or is no longer at the given version.
+     */
+    int incrementLevel(Long id, long version, int levels, int coins);
+
+    /**
+     * Pays a tournament reward to a user, takes them out of the tournament and evicts them from the second-level cache.
+     *
+     * @param id The database ID of the user.
+     * @param coins The number of coins to add.
+     * @return The number of updated rows.
+     */
+    int applyReward(Long id, int coins);
+
+    /**
+     * Inserts users in JDBC batches in one transaction. The users are not put in the second-level cache
+     * and are detached afterwards. The rest of an enclosing transaction does not use the cache either.
+     *
+     * @param users The new users.
+     */
+    void insertAll(List<User> users);
+
+    /**
+     * Sets the level and coins of the users in a range of database IDs that match the filters, in a single
+     * statement, and evicts all users from the second-level cache.
+     *
+     * @param update The filters and the values to set.
+     * @param fromId The first database ID of the range.
+     * @param toId The last database ID of the range.
+     * @return The number of updated rows.
+     */
+    int updateRange(UserBulkUpdateDTO update, long fromId, long toId);
+}
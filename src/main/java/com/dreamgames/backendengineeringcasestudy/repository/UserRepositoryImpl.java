@@ -0,0 +1,104 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import com.dreamgames.backendengineeringcasestudy.DTO.UserBulkUpdateDTO;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counter updates go through JDBC instead of bulk JPQL, because Hibernate evicts the whole user
+ * region on every bulk update. The updated user alone is evicted instead. Range updates touch too
+ * many users to evict one by one and evict the region themselves. Every update bumps the version,
+ * so entity writes based on a copy read before it fail with an optimistic locking conflict.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityCacheEvictor cacheEvictor;
+
+    @Override
+    @Transactional(readOnly = true)
+    public User findByUserId(String userId) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).load(userId);
+    }
+
+    @Override
+    public int incrementLevel(Long id, long version, int levels, int coins) {
+        int updated = jdbcTemplate.update("UPDATE user SET level = level + ?, coins = coins + ?, version = version + 1 " +
+                "WHERE id = ? AND version = ?", levels, coins, id, version);
+        cacheEvictor.evictUser(id);
+        return updated;
+    }
+
+    @Override
+    public int applyReward(Long id, int coins) {
+        int updated = jdbcTemplate.update("UPDATE user SET coins = coins + ?, reward_claimed = true, in_tournament = false, version = version + 1 " +
+                "WHERE id = ?", coins, id);
+        cacheEvictor.evictUser(id);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<User> users) {
+        // Inserted entities are put in the cache when the transaction completes, so the mode is left as is until then
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        users.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public int updateRange(UserBulkUpdateDTO update, long fromId, long toId) {
+        List<String> assignments = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (update.getLevel() != null) {
+            assignments.add("level = ?");
+            args.add(update.getLevel());
+        }
+        if (update.getCoins() != null) {
+            assignments.add("coins = ?");
+            args.add(update.getCoins());
+        }
+        assignments.add("version = version + 1");
+        StringBuilder sql = new StringBuilder("UPDATE user SET ").append(String.join(", ", assignments))
+                .append(" WHERE id BETWEEN ? AND ?");
+        args.add(fromId);
+        args.add(toId);
+        if (update.getCountry() != null) {
+            sql.append(" AND country = ?");
+            args.add(update.getCountry());
+        }
+        if (update.getMinLevel() != null) {
+            sql.append(" AND level >= ?");
+            args.add(update.getMinLevel());
+        }
+        if (update.getMaxLevel() != null) {
+            sql.append(" AND level <= ?");
+            args.add(update.getMaxLevel());
+        }
+        if (update.getInTournament() != null) {
+            sql.append(" AND in_tournament = ?");
+            args.add(update.getInTournament());
+        }
+        int updated = jdbcTemplate.update(sql.toString(), args.toArray());
+        if (updated > 0) {
+            cacheEvictor.evictAllUsers();
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,75 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Holds the currently active tournament together with its start/end window, so resolving it
+ * does not hit the database on every request. The holder is refreshed when a tournament is
+ * created or ended on this node, and revalidated with an indexed range query once its TTL
+ * expires so tournaments created or ended on other nodes are picked up as well.
+ */
+@Component
+public class ActiveTournamentHolder {
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Value("${tournament.active-cache.ttl-ms:1000}")
+    private long ttlMillis;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Retrieves the current active tournament.
+     *
+     * @return The current Tournament entity, or null if no active tournament is found.
+     */
+    public Tournament get() {
+        Snapshot current = snapshot;
+        if (current != null && current.isValidAt(System.currentTimeMillis())) {
+            return current.tournament;
+        }
+        return reload(current);
+    }
+
+    /**
+     * Reloads the active tournament from the database.
+     *
+     * @return The current Tournament entity, or null if no active tournament is found.
+     */
+    public synchronized Tournament refresh() {
+        snapshot = load();
+        return snapshot.tournament;
+    }
+
+    private synchronized Tournament reload(Snapshot stale) {
+        // Another thread may have reloaded it while this one was waiting
+        if (snapshot != stale && snapshot.isValidAt(System.currentTimeMillis())) {
+            return snapshot.tournament;
+        }
+        return refresh();
+    }
+
+    private Snapshot load() {
+        Date now = new Date();
+        Tournament tournament = tournamentRepository.findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(now, now)
+                .orElse(null);
+        return new Snapshot(tournament, now.getTime() + ttlMillis);
+    }
+
+    private record Snapshot(Tournament tournament, long expiresAt) {
+        boolean isValidAt(long now) {
+            if (now >= expiresAt) {
+                return false;
+            }
+            return tournament == null ||
+                    (tournament.getStartTime().getTime() < now && now < tournament.getEndTime().getTime());
+        }
+    }
+}
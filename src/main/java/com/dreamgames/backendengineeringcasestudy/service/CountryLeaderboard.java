@@ -0,0 +1,144 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Country totals of each tournament, kept in striped counters that score updates bump without
+ * contending with each other. Reads are served from a sorted snapshot that is rebuilt at most
+ * once per staleness window. The totals are loaded from the database the first time a tournament
+ * is used and periodically reconciled with it, which also repairs updates lost to a failure.
+ */
+@Component
+public class CountryLeaderboard {
+
+    @Autowired
+    private UserGroupRepository userGroupRepository;
+
+    @Value("${tournament.country-leaderboard.max-staleness-ms:1000}")
+    private long maxStalenessMillis;
+
+    @Value("${tournament.country-leaderboard.reconcile-interval-ms:60000}")
+    private long reconcileIntervalMillis;
+
+    private final Map<Long, CountryTotals> totals = new ConcurrentHashMap<>();
+
+    /**
+     * Retrieves the country leaderboard of a tournament.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @return A map where the key is the country name and the value is the total score of users from that country, sorted by score in descending order.
+     */
+    public Map<String, Integer> get(Long tournamentId) {
+        CountryTotals current = totals(tournamentId);
+        long now = System.currentTimeMillis();
+        if (now - current.loadedAt >= reconcileIntervalMillis) {
+            current = reloadIfUnchanged(tournamentId, current);
+        }
+        return current.snapshot(now, maxStalenessMillis);
+    }
+
+    /**
+     * Adds score to the total of a country. Ignored if the tournament is not loaded,
+     * since loading it later reads the score from the database.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param country The country of the user who scored.
+     * @param score The score to add, 0 to only make the country show up on the leaderboard.
+     */
+    public void add(Long tournamentId, String country, int score) {
+        CountryTotals current = totals.get(tournamentId);
+        if (current != null) {
+            current.counters.computeIfAbsent(country, c -> new LongAdder()).add(score);
+        }
+    }
+
+    /**
+     * Reloads the totals of a tournament from the database.
+     *
+     * @param tournamentId The ID of the tournament.
+     */
+    public void reconcile(Long tournamentId) {
+        reload(tournamentId);
+    }
+
+    /**
+     * Loads the totals of a tournament from the database if they are not loaded yet.
+     *
+     * @param tournamentId The ID of the tournament.
+     */
+    public void warmUp(Long tournamentId) {
+        totals(tournamentId);
+    }
+
+    /**
+     * Drops the totals of a tournament from memory.
+     *
+     * @param tournamentId The ID of the tournament.
+     */
+    public void evict(Long tournamentId) {
+        totals.remove(tournamentId);
+    }
+
+    private CountryTotals totals(Long tournamentId) {
+        return totals.computeIfAbsent(tournamentId, this::load);
+    }
+
+    private synchronized CountryTotals reloadIfUnchanged(Long tournamentId, CountryTotals stale) {
+        // Another thread may have reconciled the totals while this one was waiting
+        CountryTotals latest = totals.get(tournamentId);
+        return latest != null && latest != stale ? latest : reload(tournamentId);
+    }
+
+    private CountryTotals reload(Long tournamentId) {
+        CountryTotals reloaded = load(tournamentId);
+        totals.put(tournamentId, reloaded);
+        return reloaded;
+    }
+
+    private CountryTotals load(Long tournamentId) {
+        CountryTotals loaded = new CountryTotals();
+        for (Object[] row : userGroupRepository.sumScoresByCountry(tournamentId)) {
+            LongAdder counter = new LongAdder();
+            counter.add(((Number) row[1]).longValue());
+            loaded.counters.put((String) row[0], counter);
+        }
+        return loaded;
+    }
+
+    private static final class CountryTotals {
+        private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+        private final long loadedAt = System.currentTimeMillis();
+        private volatile Map<String, Integer> snapshot;
+        private volatile long snapshotAt;
+
+        Map<String, Integer> snapshot(long now, long maxStalenessMillis) {
+            Map<String, Integer> current = snapshot;
+            if (current != null && now - snapshotAt < maxStalenessMillis) {
+                return current;
+            }
+            synchronized (this) {
+                if (snapshot == null || now - snapshotAt >= maxStalenessMillis) {
+                    snapshot = Collections.unmodifiableMap(counters.entrySet().stream()
+                            .map(e -> Map.entry(e.getKey(), e.getValue().intValue()))
+                            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                            .collect(Collectors.toMap(
+                                    Map.Entry::getKey,
+                                    Map.Entry::getValue,
+                                    (e1, e2) -> e1,
+                                    LinkedHashMap::new
+                            )));
+                    snapshotAt = now;
+                }
+                return snapshot;
+            }
+        }
+    }
+}
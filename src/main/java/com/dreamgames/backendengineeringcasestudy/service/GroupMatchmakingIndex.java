@@ -0,0 +1,268 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentGroupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory index of the tournament groups that still have free slots.
+ * Open groups are bucketed per tournament by the set of countries they are still missing,
+ * so matching a user to a compatible group only looks at a fixed number of buckets.
+ * The index of a tournament is rebuilt from the database the first time it is used. When it knows no group
+ * for a country, the database is asked for open groups, which picks up groups created by other nodes since.
+ * <p>
+ * The index is only a hint: every slot it picks is reserved in the database before it is handed out,
+ * so several nodes can match users into the same groups. Slots another node took in the meantime
+ * are dropped from the index and the next candidate is tried.
+ */
+@Component
+public class GroupMatchmakingIndex {
+    static final int GROUP_SIZE = 5;
+
+    private static final int ALL_COUNTRIES = (1 << UserService.COUNTRIES.size()) - 1;
+
+    // Open groups read from the database at once when the index has no candidate
+    private static final int DATABASE_CANDIDATES = 10;
+
+    // Missing-country masks ordered by the number of missing countries, so the fullest groups are filled first
+    private static final int[] MASKS_BY_MISSING_COUNT = IntStream.rangeClosed(1, ALL_COUNTRIES)
+            .boxed()
+            .sorted(Comparator.comparingInt(Integer::bitCount))
+            .mapToInt(Integer::intValue)
+            .toArray();
+
+    @Autowired
+    private TournamentGroupRepository tournamentGroupRepository;
+
+    private final Map<Long, TournamentPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves a slot for a user of the given country in an open group of the tournament.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param country The country of the entering user.
+     * @return The reserved slot, or an empty Optional if no compatible group is open.
+     */
+    public Optional<Slot> claimSlot(Long tournamentId, String country) {
+        int countryBit = countryBit(country);
+        if (countryBit == 0) {
+            return Optional.empty();
+        }
+        TournamentPool pool = pool(tournamentId);
+        Optional<Slot> candidate;
+        while ((candidate = pool.claim(countryBit)).isPresent()) {
+            Long groupId = candidate.get().groupId();
+            int memberCount;
+            try {
+                memberCount = tournamentGroupRepository.reserveSlot(groupId, country, GROUP_SIZE);
+            } catch (RuntimeException e) {
+                pool.release(groupId, countryBit);  // Nothing was reserved, the caller never learns about the slot
+                throw e;
+            }
+            if (memberCount > 0) {
+                boolean filled = memberCount >= GROUP_SIZE;
+                if (filled && !candidate.get().groupFilled()) {
+                    pool.remove(groupId);  // Filled up by other nodes
+                }
+                return Optional.of(new Slot(groupId, filled));
+            }
+            // Another node took the slot, it stays out of the index
+        }
+        return claimFromDatabase(tournamentId, pool, country, countryBit);
+    }
+
+    /**
+     * Reserves a slot in an open group found in the database, and adds the group to the index
+     * if it still has free slots afterwards.
+     */
+    private Optional<Slot> claimFromDatabase(Long tournamentId, TournamentPool pool, String country, int countryBit) {
+        Map<Long, String> openGroups = tournamentGroupRepository.findOpenGroups(tournamentId, country, GROUP_SIZE, DATABASE_CANDIDATES);
+        for (Map.Entry<Long, String> group : openGroups.entrySet()) {
+            Long groupId = group.getKey();
+            int memberCount = tournamentGroupRepository.reserveSlot(groupId, country, GROUP_SIZE);
+            if (memberCount > 0) {
+                boolean filled = memberCount >= GROUP_SIZE;
+                if (filled) {
+                    pool.remove(groupId);
+                } else {
+                    pool.open(groupId, ALL_COUNTRIES & ~presentCountries(group.getValue()) & ~countryBit);
+                }
+                return Optional.of(new Slot(groupId, filled));
+            }
+            // Taken by another node since it was read
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Registers a newly created group whose first member is from the given country, and reserves
+     * the slot of that member.
+     *
+     * @param tournamentId The ID of the tournament the group belongs to.
+     * @param groupId The ID of the new group.
+     * @param country The country of the group's first member.
+     */
+    public void registerGroup(Long tournamentId, Long groupId, String country) {
+        int countryBit = countryBit(country);
+        if (countryBit == 0) {
+            return;  // Unknown countries can not be matched, the group stays as it is
+        }
+        tournamentGroupRepository.reserveSlot(groupId, country, GROUP_SIZE);
+        pool(tournamentId).open(groupId, ALL_COUNTRIES & ~countryBit);
+    }
+
+    /**
+     * Gives back a slot reserved by {@link #claimSlot} or {@link #registerGroup} when the entry of the user
+     * rolled back. The reservation in the database rolled back with the entry; a group created by the entry
+     * did as well and is dropped.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param groupId The ID of the group the slot was reserved in.
+     * @param country The country of the user the slot was reserved for.
+     */
+    public void releaseSlot(Long tournamentId, Long groupId, String country) {
+        int countryBit = countryBit(country);
+        if (countryBit != 0) {
+            pool(tournamentId).release(groupId, countryBit);
+        }
+    }
+
+    /**
+     * Drops the index of a tournament, e.g. once the tournament has ended.
+     *
+     * @param tournamentId The ID of the tournament.
+     */
+    public void evict(Long tournamentId) {
+        pools.remove(tournamentId);
+    }
+
+    /**
+     * Loads the index of a tournament from the database if it is not loaded yet.
+     *
+     * @param tournamentId The ID of the tournament.
+     */
+    public void warmUp(Long tournamentId) {
+        pool(tournamentId);
+    }
+
+    /**
+     * @return The number of groups that are still waiting for members, across all indexed tournaments.
+     */
+    public int openGroupCount() {
+        return pools.values().stream().mapToInt(TournamentPool::size).sum();
+    }
+
+    private TournamentPool pool(Long tournamentId) {
+        return pools.computeIfAbsent(tournamentId, this::load);
+    }
+
+    private TournamentPool load(Long tournamentId) {
+        Map<Long, Integer> presentCountries = new HashMap<>();
+        Map<Long, Integer> memberCounts = new HashMap<>();
+        for (Object[] row : tournamentGroupRepository.findGroupMemberCountries(tournamentId)) {
+            Long groupId = (Long) row[0];
+            String country = (String) row[1];
+            presentCountries.merge(groupId, countryBit(country), (a, b) -> a | b);
+            memberCounts.merge(groupId, country != null ? 1 : 0, Integer::sum);
+        }
+
+        TournamentPool pool = new TournamentPool();
+        presentCountries.forEach((groupId, present) -> {
+            int missing = ALL_COUNTRIES & ~present;
+            if (memberCounts.get(groupId) < GROUP_SIZE && missing != 0) {
+                pool.open(groupId, missing);
+            }
+        });
+        System.out.println("Matchmaking index loaded for tournament " + tournamentId + " with " + pool.size() + " open groups");
+        return pool;
+    }
+
+    private static int countryBit(String country) {
+        int index = country != null ? UserService.COUNTRIES.indexOf(country) : -1;
+        return index < 0 ? 0 : 1 << index;
+    }
+
+    private static int presentCountries(String memberCountries) {
+        int present = 0;
+        for (String country : memberCountries.split(";")) {
+            present |= countryBit(country);
+        }
+        return present;
+    }
+
+    private static boolean isFull(int missing) {
+        return UserService.COUNTRIES.size() - Integer.bitCount(missing) >= GROUP_SIZE;
+    }
+
+    /**
+     * A slot reserved in a group.
+     *
+     * @param groupId The ID of the group.
+     * @param groupFilled true if the reservation took the last free slot of the group.
+     */
+    public record Slot(Long groupId, boolean groupFilled) {
+    }
+
+    /**
+     * Open groups of a single tournament. All operations touch a fixed number of buckets,
+     * so a plain monitor is enough to keep concurrent entries consistent.
+     */
+    private static final class TournamentPool {
+        @SuppressWarnings("unchecked")
+        private final Deque<Long>[] buckets = new Deque[ALL_COUNTRIES + 1];
+        private final Map<Long, Integer> missingByGroup = new HashMap<>();
+
+        synchronized Optional<Slot> claim(int countryBit) {
+            for (int missing : MASKS_BY_MISSING_COUNT) {
+                if ((missing & countryBit) == 0 || buckets[missing] == null || buckets[missing].isEmpty()) {
+                    continue;
+                }
+                Long groupId = buckets[missing].pollFirst();
+                missingByGroup.remove(groupId);
+                int remaining = missing & ~countryBit;
+                boolean filled = isFull(remaining);
+                if (!filled) {
+                    open(groupId, remaining);
+                }
+                return Optional.of(new Slot(groupId, filled));
+            }
+            return Optional.empty();
+        }
+
+        synchronized void open(Long groupId, int missing) {
+            Integer previous = missingByGroup.put(groupId, missing);
+            if (previous != null) {
+                buckets[previous].remove(groupId);
+            }
+            if (buckets[missing] == null) {
+                buckets[missing] = new ArrayDeque<>();
+            }
+            buckets[missing].addLast(groupId);
+        }
+
+        synchronized void release(Long groupId, int countryBit) {
+            Integer missing = missingByGroup.get(groupId);
+            int released = (missing != null ? missing : 0) | countryBit;
+            if (released == ALL_COUNTRIES) {
+                remove(groupId);  // Nobody is left, the group was created by the rolled back entry
+            } else {
+                open(groupId, released);
+            }
+        }
+
+        synchronized void remove(Long groupId) {
+            Integer missing = missingByGroup.remove(groupId);
+            if (missing != null) {
+                buckets[missing].remove(groupId);
+            }
+        }
+
+        synchronized int size() {
+            return missingByGroup.size();
+        }
+    }
+}
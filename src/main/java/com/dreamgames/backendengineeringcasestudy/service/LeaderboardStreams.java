@@ -0,0 +1,278 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.DTO.GroupLeaderboardDTO;
+import com.dreamgames.backendengineeringcasestudy.config.ReplicaReads;
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Pushes group and country leaderboards to Server-Sent Events subscribers. Score changes only mark
+ * a group as changed; on every tick the changed groups are read with one query and each board is
+ * sent once, however many completions happened since the last tick. Each subscriber holds at most
+ * one unsent frame, so a slow client skips intermediate boards instead of queueing them.
+ * Sends block a sender thread while the client does not read, so a send still running after
+ * send-timeout-ms drops its subscriber and interrupts the thread, keeping the other subscribers served.
+ */
+@Component
+public class LeaderboardStreams {
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private UserGroupRepository userGroupRepository;
+
+    @Autowired
+    private CountryLeaderboard countryLeaderboard;
+
+    @Autowired
+    private ReplicaReads replicaReads;
+
+    @Value("${tournament.leaderboard-stream.tick-ms:250}")
+    private long tickMillis;
+
+    @Value("${tournament.leaderboard-stream.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    @Value("${tournament.leaderboard-stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${tournament.leaderboard-stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${tournament.leaderboard-stream.send-timeout-ms:5000}")
+    private long sendTimeoutMillis;
+
+    private final Map<Long, Set<Subscriber>> groupSubscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> countrySubscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changedGroups = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private volatile Map<String, Integer> lastCountryBoard;
+
+    // Creates the emitter of a new subscriber
+    private Function<Long, SseEmitter> emitterFactory = SseEmitter::new;
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService senders;
+
+    @PostConstruct
+    void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "leaderboard-stream-tick"));
+        ticker.scheduleWithFixedDelay(this::tickQuietly, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        senders = Executors.newFixedThreadPool(senderThreads, r -> new Thread(r, "leaderboard-stream-send"));
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    /**
+     * Subscribes to the leaderboard of a group in the current tournament. The current board is sent right away.
+     *
+     * @param groupId The ID of the group.
+     * @return The emitter of the subscription.
+     * @throws IllegalStateException if the node already serves the maximum number of subscribers.
+     */
+    public SseEmitter subscribeGroup(Long groupId) {
+        Subscriber subscriber = subscribe("group-leaderboard");
+        groupSubscribers.compute(groupId, (id, subscribers) -> {
+            Set<Subscriber> updated = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+        onRemove(subscriber, () -> groupSubscribers.computeIfPresent(groupId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        }));
+        changedGroups.add(groupId);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Subscribes to the country leaderboard of the current tournament. The current board is sent right away.
+     *
+     * @return The emitter of the subscription.
+     * @throws IllegalStateException if the node already serves the maximum number of subscribers.
+     */
+    public SseEmitter subscribeCountries() {
+        Subscriber subscriber = subscribe("country-leaderboard");
+        countrySubscribers.add(subscriber);
+        onRemove(subscriber, () -> countrySubscribers.remove(subscriber));
+        Map<String, Integer> board = lastCountryBoard;
+        if (board != null) {
+            offer(subscriber, board);
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Marks the leaderboard of a group as changed, to be sent on the next tick. Ignored if nobody subscribed to the group.
+     *
+     * @param groupId The ID of the group.
+     */
+    public void groupChanged(Long groupId) {
+        if (groupSubscribers.containsKey(groupId)) {
+            changedGroups.add(groupId);
+        }
+    }
+
+    /**
+     * @return The number of open subscriptions on this node.
+     */
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Drops subscribers whose send stalled, then sends the boards of the groups changed since the last tick
+     * and the country board if it changed.
+     */
+    void tick() {
+        dropStalledSubscribers();
+        Tournament tournament = activeTournamentHolder.get();
+        if (tournament == null) {
+            changedGroups.clear();
+            return;
+        }
+
+        if (!changedGroups.isEmpty()) {
+            List<Long> groupIds = new ArrayList<>();
+            for (Long groupId : new ArrayList<>(changedGroups)) {
+                changedGroups.remove(groupId);
+                if (groupSubscribers.containsKey(groupId)) {
+                    groupIds.add(groupId);
+                }
+            }
+            if (!groupIds.isEmpty()) {
+                Map<Long, List<GroupLeaderboardDTO>> boards = TournamentService.toLeaderboards(groupIds,
+                        replicaReads.execute(() -> userGroupRepository.findLeaderboardRows(tournament.getId(), groupIds)));
+                boards.forEach((groupId, board) ->
+                        groupSubscribers.getOrDefault(groupId, Collections.emptySet()).forEach(s -> offer(s, board)));
+            }
+        }
+
+        if (!countrySubscribers.isEmpty()) {
+            Map<String, Integer> board = countryLeaderboard.get(tournament.getId());
+            if (!board.equals(lastCountryBoard)) {
+                lastCountryBoard = board;
+                countrySubscribers.forEach(s -> offer(s, board));
+            }
+        }
+    }
+
+    private Subscriber subscribe(String eventName) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many leaderboard subscribers");
+        }
+        return new Subscriber(emitterFactory.apply(timeoutMillis), eventName);
+    }
+
+    private void onRemove(Subscriber subscriber, Runnable unregister) {
+        Runnable remove = () -> {
+            if (subscriber.removed.compareAndSet(false, true)) {
+                subscriberCount.decrementAndGet();
+                unregister.run();
+            }
+        };
+        subscriber.remove = remove;
+        subscriber.emitter.onCompletion(remove);
+        subscriber.emitter.onTimeout(remove);
+        subscriber.emitter.onError(e -> remove.run());
+    }
+
+    private void offer(Subscriber subscriber, Object board) {
+        // A newer board replaces one the subscriber has not received yet
+        subscriber.pending.set(board);
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        synchronized (subscriber) {
+            subscriber.sender = Thread.currentThread();
+        }
+        try {
+            Object board;
+            while (!subscriber.removed.get() && (board = subscriber.pending.getAndSet(null)) != null) {
+                subscriber.sendStartedAt = System.currentTimeMillis();
+                subscriber.emitter.send(SseEmitter.event().name(subscriber.eventName).data(board));
+                subscriber.sendStartedAt = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            synchronized (subscriber) {
+                subscriber.sendStartedAt = 0;
+                subscriber.sender = null;
+                // An interrupt meant for a stalled send must not hit the next subscriber served by this thread
+                Thread.interrupted();
+            }
+            subscriber.sending.set(false);
+        }
+        if (subscriber.pending.get() != null && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void dropStalledSubscribers() {
+        long now = System.currentTimeMillis();
+        List<Subscriber> subscribers = new ArrayList<>(countrySubscribers);
+        groupSubscribers.values().forEach(subscribers::addAll);
+        for (Subscriber subscriber : subscribers) {
+            synchronized (subscriber) {
+                long startedAt = subscriber.sendStartedAt;
+                if (subscriber.sender == null || startedAt == 0 || now - startedAt < sendTimeoutMillis) {
+                    continue;
+                }
+                System.out.println("Dropping " + subscriber.eventName + " subscriber, a send stalled for " + (now - startedAt) + " ms");
+                subscriber.remove.run();
+                subscriber.sender.interrupt();
+            }
+            subscriber.emitter.completeWithError(new IOException("Send timed out"));
+        }
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            System.out.println("Leaderboard stream tick failed: " + e.getMessage());
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final String eventName;
+        private final AtomicReference<Object> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private Runnable remove = () -> {
+        };
+        // The thread sending to the subscriber and when its current send started, 0 while not sending
+        private Thread sender;
+        private volatile long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter, String eventName) {
+            this.emitter = emitter;
+            this.eventName = eventName;
+        }
+    }
+}
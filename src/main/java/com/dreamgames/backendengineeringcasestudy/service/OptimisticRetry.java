@@ -0,0 +1,66 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs writes that fail when a row changed since it was read, retrying them a bounded number of times.
+ * Each retry waits a random time up to an exponentially growing limit, so requests that conflicted
+ * with each other do not collide again on the next attempt.
+ */
+@Component
+public class OptimisticRetry {
+
+    @Autowired
+    private TournamentMetrics metrics;
+
+    @Value("${tournament.optimistic-retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${tournament.optimistic-retry.base-backoff-ms:5}")
+    private long baseBackoffMillis;
+
+    @Value("${tournament.optimistic-retry.max-backoff-ms:100}")
+    private long maxBackoffMillis;
+
+    /**
+     * Runs an action, running it again from the start while it fails with an optimistic locking conflict.
+     * The action must read the rows it writes itself, so every attempt works on fresh copies.
+     *
+     * @param operation The name of the operation, used as the metrics tag.
+     * @param action The action to run.
+     * @return The result of the first attempt that did not conflict.
+     * @throws OptimisticLockingFailureException if the last attempt conflicted as well.
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                metrics.optimisticLockConflict(operation);
+                if (attempt >= maxAttempts) {
+                    metrics.optimisticLockRetriesExhausted(operation);
+                    System.out.println(operation + " still conflicted after " + attempt + " attempts");
+                    throw e;
+                }
+                metrics.optimisticLockRetry(operation);
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        long limit = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(limit + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
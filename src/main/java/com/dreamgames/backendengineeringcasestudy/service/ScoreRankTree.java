@@ -0,0 +1,142 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Order-statistic tree (a size-augmented treap) over tournament entries, ordered by score in
+ * descending order and by entry ID within equal scores. Insert, remove and rank lookups are
+ * O(log n) in expectation, whatever the score distribution. Not thread-safe.
+ */
+class ScoreRankTree {
+
+    private Node root;
+
+    /**
+     * Adds an entry to the tree.
+     *
+     * @param score The score of the entry.
+     * @param entryId The ID of the entry, used to order entries with equal scores.
+     */
+    void insert(int score, long entryId) {
+        Node[] parts = split(root, score, entryId);
+        root = merge(merge(parts[0], new Node(score, entryId)), parts[1]);
+    }
+
+    /**
+     * Removes an entry from the tree.
+     *
+     * @param score The current score of the entry.
+     * @param entryId The ID of the entry.
+     */
+    void remove(int score, long entryId) {
+        root = remove(root, score, entryId);
+    }
+
+    /**
+     * Retrieves the 1-based position of an entry in the ordering.
+     *
+     * @param score The current score of the entry.
+     * @param entryId The ID of the entry.
+     * @return The number of entries ordered before the given one, plus one.
+     */
+    int rank(int score, long entryId) {
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(score, entryId, node);
+            if (cmp <= 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return before + 1;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    // Splits the tree into the entries ordered before the given key and the rest
+    private static Node[] split(Node node, int score, long entryId) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(score, entryId, node) <= 0) {
+            Node[] parts = split(node.left, score, entryId);
+            node.left = parts[1];
+            update(node);
+            parts[1] = node;
+            return parts;
+        }
+        Node[] parts = split(node.right, score, entryId);
+        node.right = parts[0];
+        update(node);
+        parts[0] = node;
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node remove(Node node, int score, long entryId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(score, entryId, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, score, entryId);
+        } else {
+            node.right = remove(node.right, score, entryId);
+        }
+        update(node);
+        return node;
+    }
+
+    private static int compare(int score, long entryId, Node node) {
+        if (score != node.score) {
+            return score > node.score ? -1 : 1;  // Higher scores come first
+        }
+        return Long.compare(entryId, node.entryId);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static final class Node {
+        private final int score;
+        private final long entryId;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        Node(int score, long entryId) {
+            this.score = score;
+            this.entryId = entryId;
+        }
+    }
+}
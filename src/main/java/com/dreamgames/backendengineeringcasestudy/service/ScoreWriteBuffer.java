@@ -0,0 +1,295 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.EntityCacheEvictor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind buffer for level completions. Level, coin and score increments are
+ * coalesced per user in memory and written as batched JDBC updates when the flush interval
+ * elapses or too many users are pending. Reads of a user go through the buffer, so users see
+ * their own completions before they are flushed. Increments still pending when the node
+ * crashes are lost, which the flush interval bounds.
+ * <p>
+ * A flush swaps the pending increments for an empty generation and keeps them readable for a while
+ * after it committed, tagged with the version every updated row has once the flush commits. A row read
+ * at that version or later already holds the increments, an older copy gets them added, so readers
+ * neither miss nor double count increments while a flush runs or after it committed.
+ */
+@Component
+public class ScoreWriteBuffer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityCacheEvictor cacheEvictor;
+
+    @Value("${tournament.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tournament.write-behind.flush-interval-ms:500}")
+    private long flushIntervalMillis;
+
+    @Value("${tournament.write-behind.max-pending-users:1000}")
+    private int maxPendingUsers;
+
+    @Value("${tournament.write-behind.batch-size:500}")
+    private int batchSize;
+
+    // Increments not taken by a flush yet. Replaced by an empty generation when a flush starts
+    private volatile Generation pending = new Generation();
+
+    // How long flushed increments stay readable, which bounds how old a copy of a row passed to apply may be
+    private static final long FLUSHED_RETENTION_MILLIS = 5_000;
+
+    // Increments taken by running and recent flushes, tagged with the row versions that hold them once committed
+    private volatile List<Generation> flushed = List.of();
+
+    // Shared by writers and readers of the generations, exclusive while a flush swaps them
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "score-write-behind"));
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+            flush();
+        }
+    }
+
+    /**
+     * @return true if completions are buffered instead of written synchronously.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers a level increment of a user.
+     *
+     * @param user The user who completed levels.
+     * @param levels The number of levels to add.
+     * @param coins The number of coins to add.
+     * @return A copy of the user with all of their buffered increments applied.
+     */
+    public User recordLevel(User user, int levels, int coins) {
+        swapLock.readLock().lock();
+        try {
+            pending.levels.merge(user.getId(), new LevelDelta(levels, coins), LevelDelta::plus);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        flushIfFull();
+        return apply(user);
+    }
+
+    /**
+     * Buffers a score increment of a user's group membership.
+     *
+     * @param userGroupId The ID of the UserGroup whose score is incremented.
+     * @param version The version of the UserGroup row the caller read.
+     * @param score The score to add.
+     * @return The total score buffered for the UserGroup that the row read at that version does not hold yet,
+     *         including this increment.
+     */
+    public int recordScore(Long userGroupId, long version, int score) {
+        swapLock.readLock().lock();
+        try {
+            int buffered = pending.scores.merge(userGroupId, score, Integer::sum);
+            for (Generation generation : flushed) {
+                Integer flushedScore = generation.scores.get(userGroupId);
+                if (flushedScore != null && !generation.isStored(generation.userGroupVersions, userGroupId, version)) {
+                    buffered += flushedScore;
+                }
+            }
+            return buffered;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the buffered increments of a user to a copy of it.
+     *
+     * @param user The user as read from the database, may be null.
+     * @return A copy of the user with all of their buffered increments applied, or the user itself if nothing is buffered.
+     */
+    public User apply(User user) {
+        if (user == null) {
+            return null;
+        }
+        LevelDelta delta;
+        swapLock.readLock().lock();
+        try {
+            delta = pending.levels.get(user.getId());
+            for (Generation generation : flushed) {
+                LevelDelta flushedDelta = generation.levels.get(user.getId());
+                if (flushedDelta != null && !generation.isStored(generation.userVersions, user.getId(), user.getVersion())) {
+                    delta = LevelDelta.combine(delta, flushedDelta);
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        if (delta == null) {
+            return user;
+        }
+        return new User(user.getId(), user.getUserId(), user.getUserName(), user.getLevel() + delta.levels(),
+                user.getCoins() + delta.coins(), user.getCountry(), user.getCreatedAt(), user.isInTournament(),
+                user.isRewardClaimed(), user.getVersion());
+    }
+
+    /**
+     * @return The number of users with increments waiting to be written.
+     */
+    public int pendingCount() {
+        return pending.levels.size();
+    }
+
+    /**
+     * Writes all buffered increments to the database. Increments of a failed flush are put back into the buffer.
+     */
+    public synchronized void flush() {
+        Generation taken;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            taken = pending;
+            pending = new Generation();
+            long now = System.currentTimeMillis();
+            List<Generation> retained = new ArrayList<>();
+            for (Generation generation : flushed) {
+                if (generation.committedAt == 0 || now - generation.committedAt < FLUSHED_RETENTION_MILLIS) {
+                    retained.add(generation);
+                }
+            }
+            retained.add(taken);
+            flushed = List.copyOf(retained);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("UPDATE user SET level = level + ?, coins = coins + ?, version = version + 1 WHERE id = ?",
+                        new ArrayList<>(taken.levels.entrySet()), batchSize, (ps, entry) -> {
+                            ps.setInt(1, entry.getValue().levels());
+                            ps.setInt(2, entry.getValue().coins());
+                            ps.setLong(3, entry.getKey());
+                        });
+                jdbcTemplate.batchUpdate("UPDATE user_group SET score = score + ?, version = version + 1 WHERE id = ?",
+                        new ArrayList<>(taken.scores.entrySet()), batchSize, (ps, entry) -> {
+                            ps.setInt(1, entry.getValue());
+                            ps.setLong(2, entry.getKey());
+                        });
+                // The updated rows stay locked until the commit, so no reader can see these versions before then
+                taken.userVersions.putAll(readVersions("user", taken.levels.keySet()));
+                taken.userGroupVersions.putAll(readVersions("user_group", taken.scores.keySet()));
+                cacheEvictor.evictUsers(taken.levels.keySet());
+            });
+            taken.committedAt = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            swapLock.writeLock().lock();
+            try {
+                taken.levels.forEach((userId, delta) -> pending.levels.merge(userId, delta, LevelDelta::plus));
+                taken.scores.forEach((userGroupId, score) -> pending.scores.merge(userGroupId, score, Integer::sum));
+                flushed = flushed.stream().filter(generation -> generation != taken).toList();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            throw e;
+        }
+    }
+
+    private Map<Long, Long> readVersions(String table, Collection<Long> ids) {
+        Map<Long, Long> versions = new HashMap<>();
+        List<Long> remaining = new ArrayList<>(ids);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            List<Long> chunk = remaining.subList(from, Math.min(from + batchSize, remaining.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, version FROM " + table + " WHERE id IN (" + placeholders + ")",
+                    rs -> {
+                        versions.put(rs.getLong(1), rs.getLong(2));
+                    }, chunk.toArray());
+        }
+        return versions;
+    }
+
+    private void flushIfFull() {
+        if (flusher != null && pending.levels.size() >= maxPendingUsers && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.out.println("Write-behind flush failed, increments will be retried: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Increments buffered between two flushes, and the row versions that hold them once they are flushed.
+     */
+    private static final class Generation {
+        private final Map<Long, LevelDelta> levels = new ConcurrentHashMap<>();
+        private final Map<Long, Integer> scores = new ConcurrentHashMap<>();
+        private final Map<Long, Long> userVersions = new ConcurrentHashMap<>();
+        private final Map<Long, Long> userGroupVersions = new ConcurrentHashMap<>();
+        private volatile long committedAt;
+
+        boolean isEmpty() {
+            return levels.isEmpty() && scores.isEmpty();
+        }
+
+        boolean isStored(Map<Long, Long> versions, Long id, long readVersion) {
+            Long storedAt = versions.get(id);
+            return storedAt != null && readVersion >= storedAt;
+        }
+    }
+
+    private record LevelDelta(int levels, int coins) {
+        LevelDelta plus(LevelDelta other) {
+            return new LevelDelta(levels + other.levels, coins + other.coins);
+        }
+
+        static LevelDelta combine(LevelDelta a, LevelDelta b) {
+            return a == null ? b : b == null ? a : a.plus(b);
+        }
+    }
+}
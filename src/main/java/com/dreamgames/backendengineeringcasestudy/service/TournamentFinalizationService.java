@@ -0,0 +1,172 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.DTO.FinalizationReportDTO;
+import com.dreamgames.backendengineeringcasestudy.entity.PendingReward;
+import com.dreamgames.backendengineeringcasestudy.entity.TournamentFinalization;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentFinalizationRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for finalizing ended tournaments.
+ */
+@Service
+public class TournamentFinalizationService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TournamentFinalizationRepository finalizationRepository;
+
+    @Autowired
+    private UserGroupRepository userGroupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${tournament.finalization.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${tournament.finalization.lease-ms:60000}")
+    private long leaseMillis;
+
+    // Identifies this node as the holder of finalization leases
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Takes the participants of a tournament out of it with set-based updates over ranges of user IDs,
+     * then settles the rewards of every group. Each range is committed together with the progress record,
+     * so a finalization interrupted by a crash resumes after the last committed range.
+     * Across nodes, only the holder of the lease on the finalization record runs it; every step renews
+     * the lease first and fails if another node has taken it over.
+     *
+     * @param tournamentId The ID of the ended tournament.
+     * @return A report of the rows touched and the time it took, with no chunks if the finalization
+     *         had already completed or is being run by another node.
+     * @throws IllegalStateException if another node took the finalization over while it ran.
+     */
+    public synchronized FinalizationReportDTO finalizeTournament(Long tournamentId) {
+        long start = System.currentTimeMillis();
+        boolean claimed = claim(tournamentId);
+        TournamentFinalization progress = finalizationRepository.findById(tournamentId).orElseThrow();
+        if (!claimed) {
+            if (progress.getCompletedAt() == null) {
+                System.out.println("Tournament " + tournamentId + " is being finalized by " + progress.getLeaseOwner());
+            }
+            return new FinalizationReportDTO(tournamentId, progress.getRowsUpdated(), 0, 0);
+        }
+
+        long maxUserId = userRepository.findMaxId();
+        int chunks = 0;
+        while (progress.getLastUserId() < maxUserId) {
+            long fromId = progress.getLastUserId() + 1;
+            long toId = Math.min(fromId + chunkSize - 1, maxUserId);
+            transactionTemplate.executeWithoutResult(status -> {
+                extendLease(tournamentId);
+                int updated = userRepository.clearInTournament(tournamentId, fromId, toId);
+                progress.setLastUserId(toId);
+                progress.setRowsUpdated(progress.getRowsUpdated() + updated);
+                finalizationRepository.recordProgress(tournamentId, toId, progress.getRowsUpdated());
+            });
+            chunks++;
+        }
+
+        if (progress.getSettledAt() == null) {
+            settleRewards(progress);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            extendLease(tournamentId);
+            finalizationRepository.markCompleted(tournamentId, new Date());
+        });
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Tournament " + tournamentId + " finalized: " + progress.getRowsUpdated() + " users updated in "
+                + chunks + " chunks, " + elapsed + " ms");
+        return new FinalizationReportDTO(tournamentId, progress.getRowsUpdated(), chunks, elapsed);
+    }
+
+    /**
+     * Takes the lease on the finalization record of a tournament, creating the record if it does not exist yet.
+     *
+     * @param tournamentId The ID of the ended tournament.
+     * @return true if this node holds the lease, false if the finalization completed or another node holds it.
+     */
+    private boolean claim(Long tournamentId) {
+        if (!finalizationRepository.existsById(tournamentId)) {
+            try {
+                finalizationRepository.save(new TournamentFinalization(tournamentId, 0, 0, new Date(), null, null, null, null));
+            } catch (DataIntegrityViolationException e) {
+                // Created by another node at the same time, the lease decides who runs it
+            }
+        }
+        long now = System.currentTimeMillis();
+        return finalizationRepository.claim(tournamentId, nodeId, new Date(now), new Date(now + leaseMillis)) == 1;
+    }
+
+    /**
+     * Renews the lease within the current transaction, keeping the finalization record locked until it commits.
+     *
+     * @param tournamentId The ID of the ended tournament.
+     * @throws IllegalStateException if another node has taken the lease over.
+     */
+    private void extendLease(Long tournamentId) {
+        if (finalizationRepository.extendLease(tournamentId, nodeId, new Date(System.currentTimeMillis() + leaseMillis)) == 0) {
+            throw new IllegalStateException("Finalization of tournament " + tournamentId + " was taken over by another node");
+        }
+    }
+
+    /**
+     * Computes the final placements of every group of the tournament and writes one pending reward
+     * per participant, so claiming a reward does not have to look at the group again.
+     * Placements of different groups are independent and computed in parallel. Members with equal
+     * scores are placed in the order they entered the tournament.
+     *
+     * @param progress The finalization record of the tournament, marked as settled in the same transaction.
+     */
+    private void settleRewards(TournamentFinalization progress) {
+        Long tournamentId = progress.getTournamentId();
+        Map<Long, List<Object[]>> groups = userGroupRepository.findSettlementRows(tournamentId).stream()
+                .collect(Collectors.groupingBy(row -> (Long) row[2], LinkedHashMap::new, Collectors.toList()));
+
+        List<PendingReward> rewards = groups.values().parallelStream()
+                .flatMap(members -> {
+                    // Members are ordered by score, highest first
+                    List<PendingReward> placements = new ArrayList<>(members.size());
+                    for (int place = 0; place < members.size(); place++) {
+                        Object[] member = members.get(place);
+                        int coins = place == 0 ? 10000 : place == 1 ? 5000 : 0;
+                        placements.add(new PendingReward((Long) member[0], (Long) member[1], tournamentId, coins, false));
+                    }
+                    return placements.stream();
+                })
+                .collect(Collectors.toList());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            extendLease(tournamentId);
+            jdbcTemplate.batchUpdate("INSERT INTO pending_reward (user_group_id, user_id, tournament_id, coins, claimed) " +
+                    "VALUES (?, ?, ?, ?, false)", rewards, chunkSize, (ps, reward) -> {
+                ps.setLong(1, reward.getUserGroupId());
+                ps.setLong(2, reward.getUserId());
+                ps.setLong(3, reward.getTournamentId());
+                ps.setInt(4, reward.getCoins());
+            });
+            progress.setSettledAt(new Date());
+            finalizationRepository.markSettled(tournamentId, progress.getSettledAt());
+        });
+        System.out.println("Tournament " + tournamentId + " settled: " + rewards.size() + " rewards in " + groups.size() + " groups");
+    }
+}
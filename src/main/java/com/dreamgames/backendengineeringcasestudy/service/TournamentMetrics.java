@@ -0,0 +1,102 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tournament specific metrics. Request latencies, repository timings and Hibernate statistics
+ * are recorded by Spring Boot and Hibernate themselves.
+ */
+@Component
+public class TournamentMetrics {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private GroupMatchmakingIndex matchmakingIndex;
+
+    @Autowired
+    private ScoreWriteBuffer scoreBuffer;
+
+    @Autowired
+    private LeaderboardStreams leaderboardStreams;
+
+    private Counter groupsJoined;
+    private Counter groupsCreated;
+
+    @PostConstruct
+    void register() {
+        groupsJoined = Counter.builder("tournament.matchmaking")
+                .description("Users placed into a group by matchmaking")
+                .tag("outcome", "joined")
+                .register(registry);
+        groupsCreated = Counter.builder("tournament.matchmaking")
+                .description("Users placed into a group by matchmaking")
+                .tag("outcome", "created")
+                .register(registry);
+        Gauge.builder("tournament.groups.waiting", matchmakingIndex, GroupMatchmakingIndex::openGroupCount)
+                .description("Groups waiting for users to fill them")
+                .register(registry);
+        Gauge.builder("tournament.write_behind.pending", scoreBuffer, ScoreWriteBuffer::pendingCount)
+                .description("Users with completed levels waiting to be written")
+                .register(registry);
+        Gauge.builder("tournament.leaderboard_stream.subscribers", leaderboardStreams, LeaderboardStreams::subscriberCount)
+                .description("Open leaderboard stream subscriptions")
+                .register(registry);
+    }
+
+    /**
+     * Records a user joining an existing group.
+     */
+    public void groupJoined() {
+        groupsJoined.increment();
+    }
+
+    /**
+     * Records a new group being created for a user.
+     */
+    public void groupCreated() {
+        groupsCreated.increment();
+    }
+
+    /**
+     * Records an attempt of an operation failing because a row it wrote changed since it was read.
+     *
+     * @param operation The name of the operation.
+     */
+    public void optimisticLockConflict(String operation) {
+        optimisticLock(operation, "conflict");
+    }
+
+    /**
+     * Records an operation being run again after a conflict.
+     *
+     * @param operation The name of the operation.
+     */
+    public void optimisticLockRetry(String operation) {
+        optimisticLock(operation, "retry");
+    }
+
+    /**
+     * Records an operation giving up after conflicting on every attempt.
+     *
+     * @param operation The name of the operation.
+     */
+    public void optimisticLockRetriesExhausted(String operation) {
+        optimisticLock(operation, "exhausted");
+    }
+
+    private void optimisticLock(String operation, String outcome) {
+        Counter.builder("tournament.optimistic_lock")
+                .description("Optimistic locking conflicts and the retries they caused")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+}
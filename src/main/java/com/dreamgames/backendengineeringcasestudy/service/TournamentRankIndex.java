@@ -0,0 +1,311 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live rank index of the users of each tournament. Entries are kept in an order-statistic tree
+ * so rank lookups are O(log n) and do not touch the database once the tournament is loaded.
+ * Users with equal scores are ranked in the order they entered the tournament.
+ * Users missing from a loaded tournament, e.g. because they entered through another node, are looked up
+ * in the database, and every loaded tournament is periodically reconciled with the database.
+ * Scores never decrease, so reconciling keeps the higher of the stored and the indexed score.
+ */
+@Component
+public class TournamentRankIndex {
+
+    @Autowired
+    private UserGroupRepository userGroupRepository;
+
+    @Value("${tournament.rank-index.max-tournaments:3}")
+    private int maxTournaments;
+
+    @Value("${tournament.rank-index.reconcile-interval-ms:60000}")
+    private long reconcileIntervalMillis;
+
+    private final Map<Long, TournamentRanking> rankings = new ConcurrentHashMap<>();
+
+    /**
+     * Retrieves the rank of a user in a tournament, loading the tournament from the database if needed.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param userId The ID of the user.
+     * @return The 1-based rank of the user, or an empty OptionalInt if the user is not in the tournament.
+     */
+    public OptionalInt rank(Long tournamentId, String userId) {
+        TournamentRanking ranking = ranking(tournamentId);
+        OptionalInt rank = ranking.rank(userId);
+        if (rank.isEmpty() && loadEntry(tournamentId, ranking, userId).isPresent()) {
+            rank = ranking.rank(userId);
+        }
+        return rank;
+    }
+
+    /**
+     * Retrieves the indexed entry of a user in a tournament, loading the tournament from the database if needed.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param userId The ID of the user.
+     * @return The entry of the user, or an empty Optional if the user is not in the tournament.
+     */
+    public Optional<Entry> entry(Long tournamentId, String userId) {
+        TournamentRanking ranking = ranking(tournamentId);
+        Optional<Entry> entry = ranking.entry(userId);
+        return entry.isPresent() ? entry : loadEntry(tournamentId, ranking, userId);
+    }
+
+    /**
+     * Adds a user who entered a tournament. Ignored if the tournament is not loaded,
+     * since loading it later reads the entry from the database.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param userId The ID of the user.
+     * @param entry The entry of the user.
+     */
+    public void add(Long tournamentId, String userId, Entry entry) {
+        TournamentRanking ranking = rankings.get(tournamentId);
+        if (ranking != null) {
+            ranking.put(userId, entry);
+        }
+    }
+
+    /**
+     * Records the new score of a user. Ignored if the tournament is not loaded. A user missing from
+     * the index is looked up in the database first.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param userId The ID of the user.
+     * @param score The new score of the user. Scores never decrease, so stale updates are dropped.
+     */
+    public void updateScore(Long tournamentId, String userId, int score) {
+        TournamentRanking ranking = rankings.get(tournamentId);
+        if (ranking != null && !ranking.updateScore(userId, score) && loadEntry(tournamentId, ranking, userId).isPresent()) {
+            ranking.updateScore(userId, score);
+        }
+    }
+
+    /**
+     * Adds to the score of a user. If the tournament is not loaded, it is loaded instead, and a user
+     * missing from the index is looked up instead; either way the stored increment is read from the database.
+     *
+     * @param tournamentId The ID of the tournament.
+     * @param userId The ID of the user.
+     * @param score The score to add.
+     * @return The updated entry of the user, or an empty Optional if the user is not in the tournament.
+     */
+    public Optional<Entry> incrementScore(Long tournamentId, String userId, int score) {
+        TournamentRanking ranking = rankings.get(tournamentId);
+        if (ranking == null) {
+            return entry(tournamentId, userId);
+        }
+        Optional<Entry> updated = ranking.incrementScore(userId, score);
+        return updated.isPresent() ? updated : loadEntry(tournamentId, ranking, userId);
+    }
+
+    /**
+     * @param tournamentId The ID of the tournament.
+     * @return true if the tournament is currently held in memory.
+     */
+    public boolean isLoaded(Long tournamentId) {
+        return rankings.containsKey(tournamentId);
+    }
+
+    /**
+     * Loads a tournament from the database if it is not loaded yet.
+     *
+     * @param tournamentId The ID of the tournament.
+     */
+    public void warmUp(Long tournamentId) {
+        ranking(tournamentId);
+    }
+
+    /**
+     * Drops a tournament from memory.
+     *
+     * @param tournamentId The ID of the tournament.
+     */
+    public void evict(Long tournamentId) {
+        rankings.remove(tournamentId);
+    }
+
+    /**
+     * Reads the stored entries of a tournament and merges them into its index.
+     *
+     * @param tournamentId The ID of the tournament.
+     */
+    public void reconcile(Long tournamentId) {
+        TournamentRanking ranking = rankings.get(tournamentId);
+        if (ranking != null) {
+            reconcile(tournamentId, ranking);
+        }
+    }
+
+    private TournamentRanking ranking(Long tournamentId) {
+        TournamentRanking ranking = rankings.get(tournamentId);
+        if (ranking != null) {
+            if (System.currentTimeMillis() - ranking.reconciledAt >= reconcileIntervalMillis) {
+                reconcileIfDue(tournamentId, ranking);
+            }
+            return ranking;
+        }
+
+        // Publish the ranking while holding its write lock, so updates arriving during the load
+        // wait for it and are then merged on top of the loaded scores
+        TournamentRanking created = new TournamentRanking();
+        created.lock.writeLock().lock();
+        try {
+            ranking = rankings.putIfAbsent(tournamentId, created);
+            if (ranking != null) {
+                return ranking;
+            }
+            for (Object[] row : userGroupRepository.findRankEntries(tournamentId)) {
+                created.put((String) row[0], toEntry(row));
+            }
+            System.out.println("Rank index loaded for tournament " + tournamentId + " with " + created.tree.size() + " users");
+            evictOldest(tournamentId);
+            return created;
+        } catch (RuntimeException e) {
+            rankings.remove(tournamentId, created);
+            throw e;
+        } finally {
+            created.lock.writeLock().unlock();
+        }
+    }
+
+    private synchronized void reconcileIfDue(Long tournamentId, TournamentRanking ranking) {
+        // Another thread may have reconciled the ranking while this one was waiting
+        if (System.currentTimeMillis() - ranking.reconciledAt >= reconcileIntervalMillis) {
+            reconcile(tournamentId, ranking);
+        }
+    }
+
+    private void reconcile(Long tournamentId, TournamentRanking ranking) {
+        // Read outside the lock, merging keeps the higher score so updates made in the meantime are not lost
+        List<Object[]> rows = userGroupRepository.findRankEntries(tournamentId);
+        ranking.lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                ranking.put((String) row[0], toEntry(row));
+            }
+            ranking.reconciledAt = System.currentTimeMillis();
+        } finally {
+            ranking.lock.writeLock().unlock();
+        }
+    }
+
+    private Optional<Entry> loadEntry(Long tournamentId, TournamentRanking ranking, String userId) {
+        List<Object[]> rows = userGroupRepository.findRankEntry(tournamentId, userId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        ranking.put(userId, toEntry(rows.get(0)));
+        return ranking.entry(userId);
+    }
+
+    private static Entry toEntry(Object[] row) {
+        return new Entry((Long) row[1], (Long) row[2], (String) row[3], (Integer) row[4]);
+    }
+
+    private void evictOldest(Long keep) {
+        while (rankings.size() > maxTournaments) {
+            Optional<Long> oldest = rankings.keySet().stream()
+                    .filter(id -> !id.equals(keep))
+                    .min(Long::compare);
+            if (oldest.isEmpty()) {
+                return;
+            }
+            rankings.remove(oldest.get());
+        }
+    }
+
+    /**
+     * The indexed state of a user in a tournament.
+     *
+     * @param userGroupId The ID of the user's UserGroup, which also orders users with equal scores.
+     * @param groupId The ID of the user's group.
+     * @param country The country of the user.
+     * @param score The score of the user.
+     */
+    public record Entry(Long userGroupId, Long groupId, String country, int score) {
+    }
+
+    private static final class TournamentRanking {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final ScoreRankTree tree = new ScoreRankTree();
+        private final Map<String, Entry> entries = new HashMap<>();
+        private volatile long reconciledAt = System.currentTimeMillis();
+
+        OptionalInt rank(String userId) {
+            lock.readLock().lock();
+            try {
+                Entry entry = entries.get(userId);
+                return entry != null ? OptionalInt.of(tree.rank(entry.score(), entry.userGroupId())) : OptionalInt.empty();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Optional<Entry> entry(String userId) {
+            lock.readLock().lock();
+            try {
+                return Optional.ofNullable(entries.get(userId));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(String userId, Entry entry) {
+            lock.writeLock().lock();
+            try {
+                Entry existing = entries.get(userId);
+                if (existing != null) {
+                    if (existing.score() >= entry.score()) {
+                        return;
+                    }
+                    tree.remove(existing.score(), existing.userGroupId());
+                }
+                entries.put(userId, entry);
+                tree.insert(entry.score(), entry.userGroupId());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Optional<Entry> incrementScore(String userId, int score) {
+            lock.writeLock().lock();
+            try {
+                Entry existing = entries.get(userId);
+                if (existing == null) {
+                    return Optional.empty();
+                }
+                Entry updated = new Entry(existing.userGroupId(), existing.groupId(), existing.country(), existing.score() + score);
+                put(userId, updated);
+                return Optional.of(updated);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean updateScore(String userId, int score) {
+            lock.writeLock().lock();
+            try {
+                Entry existing = entries.get(userId);
+                if (existing == null) {
+                    return false;
+                }
+                if (existing.score() < score) {
+                    put(userId, new Entry(existing.userGroupId(), existing.groupId(), existing.country(), score));
+                }
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
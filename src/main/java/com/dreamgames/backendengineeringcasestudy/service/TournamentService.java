@@ -1,22 +1,32 @@
 package com.dreamgames.backendengineeringcasestudy.service;
 
+import com.dreamgames.backendengineeringcasestudy.DTO.FinalizationReportDTO;
 import com.dreamgames.backendengineeringcasestudy.DTO.GroupLeaderboardDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.GroupMemberRowDTO;
 import com.dreamgames.backendengineeringcasestudy.DTO.TournamentGroupDTO;
 import com.dreamgames.backendengineeringcasestudy.DTO.UserGroupDTO;
+import com.dreamgames.backendengineeringcasestudy.config.ReplicaReads;
+import com.dreamgames.backendengineeringcasestudy.entity.PendingReward;
 import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
 import com.dreamgames.backendengineeringcasestudy.entity.TournamentGroup;
 import com.dreamgames.backendengineeringcasestudy.entity.User;
 import com.dreamgames.backendengineeringcasestudy.entity.UserGroup;
+import com.dreamgames.backendengineeringcasestudy.repository.PendingRewardRepository;
 import com.dreamgames.backendengineeringcasestudy.repository.TournamentGroupRepository;
 import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
 import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
 import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service class for managing Tournaments.
@@ -38,13 +48,85 @@ public class TournamentService {
     @Autowired
     private UserGroupRepository userGroupRepository;
 
+    @Autowired
+    private GroupMatchmakingIndex matchmakingIndex;
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private TournamentRankIndex rankIndex;
+
+    @Autowired
+    private CountryLeaderboard countryLeaderboard;
+
+    @Autowired
+    private ScoreWriteBuffer scoreBuffer;
+
+    @Autowired
+    private TournamentFinalizationService finalizationService;
+
+    @Autowired
+    private PendingRewardRepository pendingRewardRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TournamentMetrics metrics;
+
+    @Autowired
+    private LeaderboardStreams leaderboardStreams;
+
+    @Autowired
+    private ReplicaReads replicaReads;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private UserLocks userLocks;
+
+    /**
+     * Rebuilds the in-memory indexes of the current tournament once the application has started,
+     * and finalizes tournaments that ended while no node was running or whose finalization was interrupted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndexes() {
+        finalizeEndedTournaments();
+        Tournament tournament = getCurrentTournament();
+        if (tournament != null) {
+            matchmakingIndex.warmUp(tournament.getId());
+            rankIndex.warmUp(tournament.getId());
+            countryLeaderboard.warmUp(tournament.getId());
+        }
+    }
+
     /**
-     * Allows a user to enter the current tournament.
+     * Allows a user to enter the current tournament. Entries and reward claims of the same user on this node
+     * run one at a time; the entry is retried if the user still changed between reading and writing it,
+     * e.g. by a request served by another node. Every attempt runs in a transaction of its own, so the
+     * entry fee, the group slot and the membership are written together or not at all.
      *
      * @param userId The ID of the user entering the tournament.
      * @return true if the user successfully enters the tournament, false otherwise.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the user kept changing on every attempt.
      */
     public boolean enterTournament(String userId) {
+        return userLocks.withLock(userId, () -> optimisticRetry.execute("enterTournament",
+                () -> transactionTemplate.execute(status -> tryEnterTournament(userId))));
+    }
+
+    /**
+     * Enters the user into the current tournament based on a fresh read of the user, within the transaction
+     * of the attempt. Saving the user is flushed right away, so a stale read copy fails before any group is touched.
+     * The in-memory indexes learn about the entry once it commits, and get the group slot back if it rolls back
+     * at any point after the slot was claimed.
+     *
+     * @param userId The ID of the user entering the tournament.
+     * @return true if the user successfully enters the tournament, false otherwise.
+     */
+    private boolean tryEnterTournament(String userId) {
         User user = userRepository.findByUserId(userId);
         Tournament tournament = getCurrentTournament();
 
@@ -52,58 +134,111 @@ public class TournamentService {
             return false;  // No active tournament found
         }
 
-        if (user != null && user.getLevel() >= 20 && user.getCoins() >= 1000 && !user.isInTournament() && user.isRewardClaimed()) {
+        // Check the entry fee against the user's buffered coins, the entry itself is written relative to the stored row
+        User bufferedUser = scoreBuffer.apply(user);
+        if (user != null && bufferedUser.getLevel() >= 20 && bufferedUser.getCoins() >= 1000 && !user.isInTournament() && user.isRewardClaimed()) {
             user.setCoins(user.getCoins() - 1000);
             user.setInTournament(true);
             user.setRewardClaimed(false);
-            userRepository.save(user);
+            userRepository.saveAndFlush(user);
 
-            TournamentGroup group = findOrCreateGroup(tournament, user);
+            // Registered before the slot is claimed, so a failure anywhere after the claim gives the slot back
+            EntryCompletion completion = new EntryCompletion(tournament, user);
+            TransactionSynchronizationManager.registerSynchronization(completion);
+            TournamentGroup group = findOrCreateGroup(tournament, user, completion);
             UserGroup userGroup = new UserGroup();
             userGroup.setUser(user);
             userGroup.setGroup(group);
             userGroup.setScore(0);
             userGroupRepository.save(userGroup);
+            completion.userGroup = userGroup;
             return true;
         }
         return false;
     }
 
     /**
-     * Creates a new daily tournament. Scheduled to run at midnight UTC every day.
+     * Creates a new daily tournament. Scheduled to run at midnight UTC every day. Skipped if
+     * another node already created the tournament of the day.
      */
     @Scheduled(cron = "0 0 0 * * *", zone = "UTC")
     public void createDailyTournament() {
+        if (tournamentRepository.existsByStartTime(dailyWindow()[0])) {
+            System.out.println("Daily tournament already created");
+            return;
+        }
         createNewTournament("Daily Tournament");
     }
 
     /**
-     * Ends the current tournament. Scheduled to run at 20:00 UTC every day.
+     * Finalizes the tournament that just ended. Scheduled to run at 20:00 UTC every day, when the daily tournament ends.
+     * The tournament is no longer active at that time, so it is looked up by its end time instead.
      */
     @Scheduled(cron = "0 0 20 * * *", zone = "UTC")
     public void endCurrentTournament() {
-        Tournament currentTournament = getCurrentTournament();
-        if (currentTournament != null) {
-            System.out.println(currentTournament.getTournamentName() + " has ended");
-
-            // Update end time of the current tournament
-            currentTournament.setEndTime(new Date());
-            tournamentRepository.save(currentTournament);
-
-            // Fetch all tournament groups for the current tournament
-            List<TournamentGroup> groups = currentTournament.getGroups();
-
-            // Update users in each group
-            for (TournamentGroup group : groups) {
-                List<UserGroup> userGroups = group.getUserGroups();
-                for (UserGroup userGroup : userGroups) {
-                    User user = userGroup.getUser();
-                    user.setInTournament(false);
-                    // Update the user in the repository
-                    userRepository.save(user);
-                }
+        finalizeEndedTournaments();
+    }
+
+    /**
+     * Finalizes every tournament whose end time has passed and whose finalization has not completed,
+     * oldest first. This covers the tournament that ended just now as well as finalizations that were
+     * interrupted or missed while no node was running. Tournaments finalized by another node are skipped.
+     *
+     * @return The reports of the finalizations that ran.
+     */
+    public List<FinalizationReportDTO> finalizeEndedTournaments() {
+        List<Tournament> ended = tournamentRepository.findEndedAndNotFinalized(new Date());
+        if (ended.isEmpty()) {
+            return Collections.emptyList();
+        }
+        scoreBuffer.flush();
+        activeTournamentHolder.refresh();
+
+        List<FinalizationReportDTO> reports = new ArrayList<>();
+        for (Tournament tournament : ended) {
+            System.out.println(tournament.getTournamentName() + " has ended");
+            matchmakingIndex.evict(tournament.getId());
+            countryLeaderboard.evict(tournament.getId());
+            try {
+                reports.add(finalizationService.finalizeTournament(tournament.getId()));
+            } catch (RuntimeException e) {
+                // Picked up again by the next run
+                System.out.println("Finalization of tournament " + tournament.getId() + " failed: " + e.getMessage());
             }
         }
+        return reports;
+    }
+
+    /**
+     * Finalizes ended tournaments that are still not finalized, e.g. because the node running the
+     * finalization crashed and its lease expired. Scheduled every retry-interval-ms.
+     */
+    @Scheduled(fixedDelayString = "${tournament.finalization.retry-interval-ms:60000}",
+            initialDelayString = "${tournament.finalization.retry-interval-ms:60000}")
+    public void retryFinalizations() {
+        finalizeEndedTournaments();
+    }
+
+    /**
+     * Ends the current tournament and takes its participants out of it.
+     *
+     * @return A report of the finalization, or an empty Optional if there is no active tournament.
+     */
+    public Optional<FinalizationReportDTO> endTournament() {
+        scoreBuffer.flush();
+        Tournament currentTournament = getCurrentTournament();
+        if (currentTournament == null) {
+            return Optional.empty();
+        }
+        System.out.println(currentTournament.getTournamentName() + " has ended");
+
+        // Update end time of the current tournament
+        tournamentRepository.updateEndTime(currentTournament.getId(), new Date());
+        activeTournamentHolder.refresh();
+        matchmakingIndex.evict(currentTournament.getId());
+        countryLeaderboard.evict(currentTournament.getId());
+
+        return Optional.of(finalizationService.finalizeTournament(currentTournament.getId()));
     }
 
     /**
@@ -113,7 +248,25 @@ public class TournamentService {
      * @return The created Tournament entity.
      */
     public Tournament createNewTournament(String tournamentName) {
-        // Set up new tournament times
+        Date[] window = dailyWindow();
+
+        // Create new tournament
+        Tournament tournament = new Tournament();
+        tournament.setTournamentName(tournamentName);
+        tournament.setStartTime(window[0]);
+        tournament.setEndTime(window[1]);
+        System.out.println("Tournament created");
+        Tournament savedTournament = tournamentRepository.save(tournament);
+        activeTournamentHolder.refresh();
+        return savedTournament;
+    }
+
+    /**
+     * Computes the window of today's tournament, from midnight to 20:00 UTC.
+     *
+     * @return The start and end time of the window.
+     */
+    private static Date[] dailyWindow() {
         Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
         calendar.set(Calendar.HOUR_OF_DAY, 0);
         calendar.set(Calendar.MINUTE, 0);
@@ -122,15 +275,7 @@ public class TournamentService {
         Date startTime = calendar.getTime();
 
         calendar.set(Calendar.HOUR_OF_DAY, 20);
-        Date endTime = calendar.getTime();
-
-        // Create new tournament
-        Tournament tournament = new Tournament();
-        tournament.setTournamentName(tournamentName);
-        tournament.setStartTime(startTime);
-        tournament.setEndTime(endTime);
-        System.out.println("Tournament created");
-        return tournamentRepository.save(tournament);
+        return new Date[]{startTime, calendar.getTime()};
     }
 
     /**
@@ -139,14 +284,7 @@ public class TournamentService {
      * @return The current Tournament entity, or null if no active tournament is found.
      */
     public Tournament getCurrentTournament() {
-        Date now = new Date();
-        List<Tournament> tournaments = tournamentRepository.findAll();
-        for (Tournament tournament : tournaments) {
-            if (tournament.getStartTime().before(now) && tournament.getEndTime().after(now)) {
-                return tournament;
-            }
-        }
-        return null;
+        return activeTournamentHolder.get();
     }
 
     /**
@@ -154,26 +292,30 @@ public class TournamentService {
      *
      * @param tournament The tournament in which the user wants to participate.
      * @param user The user to be added to a group.
+     * @param completion The completion of the entry, which learns the group as soon as a slot in it is reserved.
      * @return The found or newly created TournamentGroup entity.
      */
-    private TournamentGroup findOrCreateGroup(Tournament tournament, User user) {
-        List<TournamentGroup> groups = tournamentGroupRepository.findAll();
-        for (TournamentGroup group : groups) {
-            if (group.getTournament().equals(tournament) && group.getUserGroups().size() < 5 &&
-                    group.getUserGroups().stream().noneMatch(ug -> ug.getUser().getCountry().equals(user.getCountry()))) {
-                System.out.println("User " + user.getUserId() + " added to group " + group.getId() + " in tournament " + tournament.getTournamentName());
-                // Check the group size and start competition if needed
-                if (group.getUserGroups().size() + 1 == 5) {
-                    System.out.println("Group size will be 5 after adding user, starting competition");
-                    startGroupCompetition(group);
-                }
-                return group;
+    private TournamentGroup findOrCreateGroup(Tournament tournament, User user, EntryCompletion completion) {
+        Optional<GroupMatchmakingIndex.Slot> slot = matchmakingIndex.claimSlot(tournament.getId(), user.getCountry());
+        if (slot.isPresent()) {
+            completion.groupId = slot.get().groupId();
+            TournamentGroup group = tournamentGroupRepository.getReferenceById(slot.get().groupId());
+            metrics.groupJoined();
+            System.out.println("User " + user.getUserId() + " added to group " + group.getId() + " in tournament " + tournament.getTournamentName());
+            // Start the competition if the user takes the last free slot
+            if (slot.get().groupFilled()) {
+                System.out.println("Group size will be 5 after adding user, starting competition");
+                startGroupCompetition(group);
             }
+            return group;
         }
         System.out.println("Group Created");
         TournamentGroup newGroup = new TournamentGroup();
         newGroup.setTournament(tournament);
         TournamentGroup savedGroup = tournamentGroupRepository.save(newGroup);
+        matchmakingIndex.registerGroup(tournament.getId(), savedGroup.getId(), user.getCountry());
+        completion.groupId = savedGroup.getId();
+        metrics.groupCreated();
         System.out.println("Group with ID: " + savedGroup.getId() + " in tournament " + tournament.getId());
         return savedGroup;
     }
@@ -201,29 +343,55 @@ public class TournamentService {
     public List<TournamentGroupDTO> getActiveTournamentGroupsWithUsers() {
         Tournament activeTournament = getCurrentTournament();
         if (activeTournament != null) {
-            List<TournamentGroup> groups = tournamentGroupRepository.findByTournament(activeTournament);
-            return groups.stream().map(group -> {
-                TournamentGroupDTO groupDTO = new TournamentGroupDTO();
-                groupDTO.setGroupId(group.getId());
-                groupDTO.setCompetitionStarted(group.isCompetitionStarted());
-                List<UserGroupDTO> users = group.getUserGroups().stream().map(userGroup -> {
-                    User user = userGroup.getUser();
-                    UserGroupDTO userDTO = new UserGroupDTO();
-                    userDTO.setUserId(user.getUserId());
-                    userDTO.setUserName(user.getUserName());
-                    userDTO.setLevel(user.getLevel());
-                    userDTO.setCoins(user.getCoins());
-                    userDTO.setCountry(user.getCountry());
-                    userDTO.setScore(userGroup.getScore());
-                    return userDTO;
-                }).collect(Collectors.toList());
-                groupDTO.setUsers(users);
-                return groupDTO;
-            }).collect(Collectors.toList());
+            return toGroupDTOs(replicaReads.execute(() -> tournamentGroupRepository.findMemberRowsByTournament(activeTournament.getId())));
         }
         return Collections.emptyList();
     }
 
+    /**
+     * Retrieves a page of the active tournament groups along with their users, ordered by group ID.
+     *
+     * @param afterGroupId The ID of the last group of the previous page, or null for the first page.
+     * @param limit The maximum number of groups to return.
+     * @return A list of TournamentGroupDTO objects representing the active tournament groups and their users.
+     */
+    public List<TournamentGroupDTO> getActiveTournamentGroupsWithUsers(Long afterGroupId, int limit) {
+        Tournament activeTournament = getCurrentTournament();
+        if (activeTournament != null) {
+            List<GroupMemberRowDTO> rows = replicaReads.execute(() -> {
+                List<Long> groupIds = tournamentGroupRepository.findGroupIdsAfter(activeTournament.getId(),
+                        afterGroupId != null ? afterGroupId : 0L, PageRequest.of(0, limit));
+                return groupIds.isEmpty() ? List.<GroupMemberRowDTO>of() : tournamentGroupRepository.findMemberRowsByGroupIds(groupIds);
+            });
+            if (!rows.isEmpty()) {
+                return toGroupDTOs(rows);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Builds group DTOs from projection rows ordered by group ID.
+     *
+     * @param rows The rows of the groups joined with their members.
+     * @return A list of TournamentGroupDTO objects, one per group.
+     */
+    static List<TournamentGroupDTO> toGroupDTOs(List<GroupMemberRowDTO> rows) {
+        List<TournamentGroupDTO> groups = new ArrayList<>();
+        TournamentGroupDTO groupDTO = null;
+        for (GroupMemberRowDTO row : rows) {
+            if (groupDTO == null || !groupDTO.getGroupId().equals(row.getGroupId())) {
+                groupDTO = new TournamentGroupDTO(row.getGroupId(), new ArrayList<>(), row.isCompetitionStarted());
+                groups.add(groupDTO);
+            }
+            if (row.getUserId() != null) {
+                groupDTO.getUsers().add(new UserGroupDTO(row.getUserId(), row.getUserName(), row.getLevel(),
+                        row.getCoins(), row.getCountry(), row.getScore()));
+            }
+        }
+        return groups;
+    }
+
     /**
      * Completes a level for the specified user. If the user is in a tournament,
      * their score in the tournament is incremented.
@@ -231,17 +399,49 @@ public class TournamentService {
      * @param userId The ID of the user completing the level.
      */
     public void completeLevel(String userId) {
+        if (scoreBuffer.isEnabled()) {
+            completeLevelBuffered(userId);
+            return;
+        }
+
+        // Both increments are single conditional statements, so concurrent completions can not lose updates.
+        // The user is usually served by the cache, and the returned copy is the row the level increment applied to,
+        // so users outside a tournament complete a level with a single statement
+        User user = userService.updateLevel(userId);
+        if (user == null) {
+            System.out.println("Could not find such user");
+            return;
+        }
+        if (user.isInTournament() && userGroupRepository.incrementActiveScore(userId, 1) == 1) {
+            Tournament tournament = getCurrentTournament();
+            if (tournament != null) {
+                rankIndex.incrementScore(tournament.getId(), userId, 1).ifPresent(entry -> {
+                    countryLeaderboard.add(tournament.getId(), entry.country(), 1);
+                    leaderboardStreams.groupChanged(entry.groupId());
+                });
+                System.out.println("User " + userId + " completed level in tournament " + tournament.getTournamentName());
+            }
+        }
+    }
+
+    /**
+     * Completes a level through the write-behind buffer.
+     *
+     * @param userId The ID of the user completing the level.
+     */
+    private void completeLevelBuffered(String userId) {
         User user = userService.updateLevel(userId);
         if (user != null) {
             if (user.isInTournament()) {
-                Optional<UserGroup> optionalUserGroup = userGroupRepository.findByUserIdAndActive(user.getId(), true);
+                // Whether the competition started is read from the database, the cached group may not know yet
+                Optional<UserGroup> optionalUserGroup = userGroupRepository.findActiveInStartedGroup(user.getId());
                 if (optionalUserGroup.isPresent()) {
                     UserGroup userGroup = optionalUserGroup.get();
-                    if (userGroup.getGroup().isCompetitionStarted()) {
-                        userGroup.setScore(userGroup.getScore() + 1);
-                        System.out.println("User " + userId + " completed level in tournament " + getCurrentTournament().getTournamentName());
-                        userGroupRepository.save(userGroup);
-                    }
+                    int bufferedScore = scoreBuffer.recordScore(userGroup.getId(), userGroup.getVersion(), 1);
+                    Long tournamentId = userGroup.getGroup().getTournament().getId();
+                    rankIndex.updateScore(tournamentId, userId, userGroup.getScore() + bufferedScore);
+                    countryLeaderboard.add(tournamentId, user.getCountry(), 1);
+                    leaderboardStreams.groupChanged(userGroup.getGroup().getId());
                 }
             }
         } else {
@@ -250,54 +450,35 @@ public class TournamentService {
     }
 
     /**
-     * Allows a user to claim their reward after a tournament has ended.
+     * Allows a user to claim their reward after a tournament has ended. Runs one at a time with
+     * the user's other entries and claims on this node.
      *
      * @param userId The ID of the user claiming the reward.
      * @return true if the reward is successfully claimed, false otherwise.
      */
     public boolean claimReward(String userId) {
+        return userLocks.withLock(userId, () -> tryClaimReward(userId));
+    }
+
+    /**
+     * Applies the pending rewards of the user. Rewards are settled by the end-of-tournament job,
+     * so there is nothing to claim until it has finalized the tournament.
+     *
+     * @param userId The ID of the user claiming the reward.
+     * @return true if the reward is successfully claimed, false otherwise.
+     */
+    private boolean tryClaimReward(String userId) {
         User user = userRepository.findByUserId(userId);
         if (user != null) {
-            List<UserGroup> userGroups = userGroupRepository.findAllByUserId(user.getId());
-            boolean rewardClaimed = false;
+            // Rewards are settled when the tournament ends, so claiming only applies the pending record
+            List<PendingReward> rewards = pendingRewardRepository.findByUserIdAndClaimedFalse(user.getId());
 
-            for (UserGroup userGroup : userGroups) {
-                if (!userGroup.isActive()) {
-                    continue;
-                }
-
-                TournamentGroup group = userGroup.getGroup();
-                Tournament tournament = group.getTournament();
-
-                // Check if the tournament has ended
-                Date now = new Date();
-                if (now.after(tournament.getEndTime()) && !user.isRewardClaimed()) {
-                    // Fetch the leaderboard for the user's group directly
-                    List<UserGroup> groupUserGroups = userGroupRepository.findByGroupIdOrderByScoreDesc(group.getId());
-
-                    if (!groupUserGroups.isEmpty()) {
-                        UserGroup firstPlace = groupUserGroups.get(0);
-                        UserGroup secondPlace = groupUserGroups.size() > 1 ? groupUserGroups.get(1) : null;
-
-                        if (firstPlace != null && firstPlace.getUser().getUserId().equals(userId)) {
-                            user.setCoins(user.getCoins() + 10000);
-                        } else if (secondPlace != null && secondPlace.getUser().getUserId().equals(userId)) {
-                            user.setCoins(user.getCoins() + 5000);
-                        }
-                    }
-
-                    user.setRewardClaimed(true);
-                    user.setInTournament(false);
-                    rewardClaimed = true;
-
-                    // Mark the user group as inactive
-                    userGroup.setActive(false);
-                    userGroupRepository.save(userGroup);
-                }
+            boolean rewardClaimed = false;
+            for (PendingReward reward : rewards) {
+                rewardClaimed |= Boolean.TRUE.equals(transactionTemplate.execute(status -> applyReward(user, reward)));
             }
 
             if (rewardClaimed) {
-                userRepository.save(user);
                 System.out.println("User " + userId + " claimed the tournament reward");
                 return true;
             } else {
@@ -307,6 +488,22 @@ public class TournamentService {
         return false;
     }
 
+    /**
+     * Applies a pending reward to the user and closes their group membership.
+     *
+     * @param user The user claiming the reward.
+     * @param reward The pending reward of the user.
+     * @return true if the reward was applied, false if it had already been claimed.
+     */
+    private boolean applyReward(User user, PendingReward reward) {
+        if (pendingRewardRepository.markClaimed(reward.getUserGroupId()) == 0) {
+            return false;  // Claimed by a concurrent request
+        }
+        userRepository.applyReward(user.getId(), reward.getCoins());
+        userGroupRepository.deactivate(reward.getUserGroupId());
+        return true;
+    }
+
     /**
      * Retrieves the leaderboard for a specific group in the current tournament.
      *
@@ -315,35 +512,49 @@ public class TournamentService {
      */
     public List<GroupLeaderboardDTO> getGroupLeaderboard(Long groupId) {
         System.out.println("Fetch group leaderboard");
+        return getGroupLeaderboards(List.of(groupId)).get(groupId);
+    }
+
+    /**
+     * Retrieves the leaderboards of several groups in the current tournament with a single query.
+     *
+     * @param groupIds The IDs of the groups for which to fetch the leaderboards.
+     * @return A map where the key is the group ID and the value is its leaderboard, empty for groups not in the current tournament.
+     */
+    public Map<Long, List<GroupLeaderboardDTO>> getGroupLeaderboards(Collection<Long> groupIds) {
         Tournament currentTournament = getCurrentTournament();
         if (currentTournament == null) {
             throw new IllegalStateException("No active tournament found");
         }
 
-        // Fetch all user groups for the current tournament
-        List<UserGroup> userGroups = userGroupRepository.findByGroup_Tournament(currentTournament);
-
-        // Group user groups by their group IDs
-        Map<Long, List<UserGroup>> groupUserGroupsMap = userGroups.stream()
-                .collect(Collectors.groupingBy(ug -> ug.getGroup().getId()));
-
-        // Get user groups for the specified group ID
-        List<UserGroup> groupUserGroups = groupUserGroupsMap.get(groupId);
-
-        if (groupUserGroups == null) {
-            // No group found with the specified ID
-            return Collections.emptyList();
+        if (groupIds.isEmpty()) {
+            return new LinkedHashMap<>();
         }
+        return toLeaderboards(groupIds,
+                replicaReads.execute(() -> userGroupRepository.findLeaderboardRows(currentTournament.getId(), groupIds)));
+    }
 
-        return groupUserGroups.stream()
-                .sorted(Comparator.comparingInt(UserGroup::getScore).reversed())
-                .map(userGroup -> new GroupLeaderboardDTO(
-                        userGroup.getUser().getUserId(),
-                        userGroup.getUser().getUserName(),
-                        userGroup.getUser().getCountry(),
-                        userGroup.getScore()
-                ))
-                .collect(Collectors.toList());
+    /**
+     * Builds group leaderboards from leaderboard rows ordered by score within each group.
+     *
+     * @param groupIds The IDs of the requested groups.
+     * @param rows The rows of the requested groups as group ID, user ID, user name, country and score.
+     * @return A map where the key is the group ID and the value is its leaderboard, empty for groups without rows.
+     */
+    static Map<Long, List<GroupLeaderboardDTO>> toLeaderboards(Collection<Long> groupIds, List<Object[]> rows) {
+        Map<Long, List<GroupLeaderboardDTO>> leaderboards = new LinkedHashMap<>();
+        for (Long groupId : groupIds) {
+            leaderboards.put(groupId, new ArrayList<>());
+        }
+        for (Object[] row : rows) {
+            leaderboards.get((Long) row[0]).add(new GroupLeaderboardDTO(
+                    (String) row[1],
+                    (String) row[2],
+                    (String) row[3],
+                    (Integer) row[4]
+            ));
+        }
+        return leaderboards;
     }
 
     /**
@@ -357,104 +568,52 @@ public class TournamentService {
             throw new IllegalStateException("No active tournament found");
         }
 
-        List<UserGroup> userGroups = userGroupRepository.findByGroup_Tournament(currentTournament);
-        Map<String, Integer> countryScores = new HashMap<>();
-
-        for (UserGroup userGroup : userGroups) {
-            String country = userGroup.getUser().getCountry();
-            countryScores.put(country, countryScores.getOrDefault(country, 0) + userGroup.getScore());
-        }
-
-        return countryScores.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        return countryLeaderboard.get(currentTournament.getId());
     }
 
     /**
      * Retrieves the rank of a specific user in the current tournament.
+     * Users with equal scores are ranked in the order they entered the tournament.
      *
      * @param userId The ID of the user whose rank is to be fetched.
      * @return The rank of the user in the tournament.
      * @throws IllegalStateException if no active tournament is found or if the user is not found in the tournament.
      */
     public int getUserRank(String userId, Long tournamentId) {
-        Tournament specifiedTournament = tournamentRepository.findById(tournamentId)
-                .orElseThrow(() -> new IllegalStateException("Tournament not found"));
-
-        List<UserGroup> allUserGroups = userGroupRepository.findByGroup_Tournament(specifiedTournament);
-
-        List<UserGroupDTO> allUserScores = allUserGroups.stream()
-                .map(ug -> new UserGroupDTO(
-                        ug.getUser().getUserId(),
-                        ug.getUser().getUserName(),
-                        ug.getUser().getLevel(),
-                        ug.getUser().getCoins(),
-                        ug.getUser().getCountry(),
-                        ug.getScore()
-                ))
-                .collect(Collectors.toList());
-
-        quickSort(allUserScores, 0, allUserScores.size() - 1);
-
-        for (int i = 0; i < allUserScores.size(); i++) {
-            if (allUserScores.get(i).getUserId().equals(userId)) {
-                return i + 1;  // Rank is 1-based
-            }
+        if (!rankIndex.isLoaded(tournamentId) && !tournamentRepository.existsById(tournamentId)) {
+            throw new IllegalStateException("Tournament not found");
         }
 
-        throw new IllegalStateException("User not found in the tournament");
+        return rankIndex.rank(tournamentId, userId)
+                .orElseThrow(() -> new IllegalStateException("User not found in the tournament"));
     }
 
     /**
-     * Sorts a list of UserGroupDTO objects using the QuickSort algorithm.
-     * The sorting is done in descending order based on the score.
-     *
-     * @param list The list of UserGroupDTO objects to be sorted.
-     * @param low The starting index of the portion of the list to be sorted.
-     * @param high The ending index of the portion of the list to be sorted.
+     * Updates the in-memory indexes once the transaction of an entry completes. Committed entries are added
+     * to the rank index, the country leaderboard and the leaderboard streams. If the entry rolled back after
+     * a slot was reserved, the reservation rolled back with it and the slot is given back to the matchmaking index.
      */
-    private void quickSort(List<UserGroupDTO> list, int low, int high) {
-        if (low < high) {
-            int pi = partition(list, low, high);
-
-            quickSort(list, low, pi - 1);
-            quickSort(list, pi + 1, high);
+    private final class EntryCompletion implements TransactionSynchronization {
+        private final Tournament tournament;
+        private final User user;
+        private Long groupId;
+        private UserGroup userGroup;
+
+        EntryCompletion(Tournament tournament, User user) {
+            this.tournament = tournament;
+            this.user = user;
         }
-    }
-
-    /**
-     * Partitions the list of UserGroupDTO objects for QuickSort.
-     * The partitioning is done in descending order based on the score.
-     *
-     * @param list The list of UserGroupDTO objects to be partitioned.
-     * @param low The starting index of the portion of the list to be partitioned.
-     * @param high The ending index of the portion of the list to be partitioned.
-     * @return The partitioning index.
-     */
-    private int partition(List<UserGroupDTO> list, int low, int high) {
-        UserGroupDTO pivot = list.get(high);
-        int i = (low - 1);
-
-        for (int j = low; j < high; j++) {
-            if (list.get(j).getScore() > pivot.getScore()) { // Sorting in descending order
-                i++;
 
-                UserGroupDTO temp = list.get(i);
-                list.set(i, list.get(j));
-                list.set(j, temp);
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                rankIndex.add(tournament.getId(), user.getUserId(),
+                        new TournamentRankIndex.Entry(userGroup.getId(), groupId, user.getCountry(), 0));
+                countryLeaderboard.add(tournament.getId(), user.getCountry(), 0);
+                leaderboardStreams.groupChanged(groupId);
+            } else if (groupId != null) {
+                matchmakingIndex.releaseSlot(tournament.getId(), groupId, user.getCountry());
             }
         }
-
-        UserGroupDTO temp = list.get(i + 1);
-        list.set(i + 1, list.get(high));
-        list.set(high, temp);
-
-        return i + 1;
     }
 }
-
@@ -0,0 +1,80 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates user IDs from the time, the ID of this node and a sequence within the millisecond:
+ * 41 bits of milliseconds since 2024-01-01, 10 bits of node ID and 12 bits of sequence. The last
+ * timestamp and sequence share one atomic value, so concurrent callers never block each other and
+ * never get the same ID. IDs keep increasing when more than 4096 are taken in a millisecond or the
+ * clock moves backwards, by running slightly ahead of the clock until it catches up.
+ */
+@Component
+public class UserIdGenerator {
+
+    static final long EPOCH_MILLIS = 1704067200000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final String PREFIX = "USER";
+    private static final int DIGITS = 19;
+
+    @Value("${user.id.node-id:0}")
+    private long nodeId;
+
+    private LongSupplier clock = System::currentTimeMillis;
+
+    // Milliseconds since the epoch of the last ID shifted left by SEQUENCE_BITS, plus its sequence
+    private final AtomicLong lastState = new AtomicLong();
+
+    @PostConstruct
+    void validate() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("user.id.node-id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+    }
+
+    /**
+     * Generates the next numeric ID.
+     *
+     * @return An ID that is unique across nodes with different node IDs and greater than any ID this generator returned before.
+     */
+    public long nextId() {
+        long now = clock.getAsLong() - EPOCH_MILLIS;
+        long prev;
+        long next;
+        do {
+            prev = lastState.get();
+            long lastMillis = prev >>> SEQUENCE_BITS;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if ((prev & MAX_SEQUENCE) < MAX_SEQUENCE) {
+                next = prev + 1;
+            } else {
+                next = (lastMillis + 1) << SEQUENCE_BITS;
+            }
+        } while (!lastState.compareAndSet(prev, next));
+        long millis = next >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & MAX_SEQUENCE);
+    }
+
+    /**
+     * Generates the next user ID. The number is zero padded, so user IDs sort in the order they were generated.
+     *
+     * @return A unique user ID.
+     */
+    public String nextUserId() {
+        String digits = Long.toString(nextId());
+        StringBuilder userId = new StringBuilder(PREFIX.length() + DIGITS).append(PREFIX);
+        for (int i = digits.length(); i < DIGITS; i++) {
+            userId.append('0');
+        }
+        return userId.append(digits).toString();
+    }
+}
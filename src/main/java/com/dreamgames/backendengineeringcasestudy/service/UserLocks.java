@@ -0,0 +1,63 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes the mutations of a user on this node. Users are hashed onto a fixed number of locks,
+ * so memory does not grow with the number of users and requests of different users rarely wait
+ * for each other. Locks are taken before any transaction begins, so waiting holds no connection.
+ */
+@Component
+public class UserLocks {
+
+    @Value("${tournament.user-locks.stripes:1024}")
+    private int stripes;
+
+    private ReentrantLock[] locks;
+
+    @PostConstruct
+    void init() {
+        // Rounded up to a power of two, so the stripe of a user is picked with a mask
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the lock of a user, waiting for other actions of the same user to finish first.
+     *
+     * @param userId The ID of the user.
+     * @param action The action to run.
+     * @return The result of the action.
+     */
+    public <T> T withLock(String userId, Supplier<T> action) {
+        ReentrantLock lock = lockOf(userId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of locks users are hashed onto.
+     */
+    public int stripeCount() {
+        return locks.length;
+    }
+
+    ReentrantLock lockOf(String userId) {
+        int hash = userId.hashCode();
+        // Mixes the high bits into the masked low bits
+        hash ^= hash >>> 16;
+        return locks[hash & (locks.length - 1)];
+    }
+}
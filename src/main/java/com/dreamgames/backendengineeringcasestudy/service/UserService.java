@@ -1,12 +1,32 @@
 package com.dreamgames.backendengineeringcasestudy.service;
 
+import com.dreamgames.backendengineeringcasestudy.DTO.BulkCreateReportDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.BulkUpdateReportDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.UserBulkUpdateDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.UserDTO;
+import com.dreamgames.backendengineeringcasestudy.DTO.UserPageDTO;
+import com.dreamgames.backendengineeringcasestudy.config.ReplicaReads;
 import com.dreamgames.backendengineeringcasestudy.entity.User;
 import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 /**
  * Service class for managing User entities.
@@ -17,8 +37,34 @@ public class UserService {
     @Autowired
     private UserRepository repository;
 
-    private final String[] countries = {"Turkey", "United States", "United Kingdom", "France", "Germany"};
-    private final Random random = new Random();
+    @Autowired
+    private ScoreWriteBuffer scoreBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserIdGenerator userIdGenerator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReplicaReads replicaReads;
+
+    @Value("${user.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Value("${user.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${user.bulk-update.chunk-size:10000}")
+    private int bulkUpdateChunkSize;
+
+    static final List<String> COUNTRIES = List.of("Turkey", "United States", "United Kingdom", "France", "Germany");
 
     /**
      * Creates a new user with the specified username.
@@ -27,15 +73,57 @@ public class UserService {
      * @return The created User entity.
      */
     public User createUser(String userName) {
+        return repository.save(newUser(userName));
+    }
+
+    /**
+     * Creates a user for each username. Users are inserted in JDBC batches, one transaction per chunk,
+     * so the names are read as the users are created and a failure keeps the chunks committed before it.
+     *
+     * @param userNames The usernames of the new users. Blank names are skipped.
+     * @return A report of the users created and the rate they were created at.
+     */
+    public BulkCreateReportDTO createUsers(Iterator<String> userNames) {
+        long start = System.currentTimeMillis();
+        long created = 0;
+        int chunks = 0;
+        List<User> chunk = new ArrayList<>(bulkChunkSize);
+        while (userNames.hasNext()) {
+            String userName = userNames.next();
+            if (userName == null || userName.isBlank()) {
+                continue;
+            }
+            chunk.add(newUser(userName.trim()));
+            if (chunk.size() == bulkChunkSize) {
+                repository.insertAll(chunk);
+                created += chunk.size();
+                chunks++;
+                chunk.clear();
+                System.out.println(created + " users created");
+            }
+        }
+        if (!chunk.isEmpty()) {
+            repository.insertAll(chunk);
+            created += chunk.size();
+            chunks++;
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        long usersPerSecond = created * 1000 / Math.max(elapsed, 1);
+        System.out.println(created + " users created in " + elapsed + " ms (" + usersPerSecond + " users/s)");
+        return new BulkCreateReportDTO(created, chunks, elapsed, usersPerSecond);
+    }
+
+    private User newUser(String userName) {
         User user = new User();
-        user.setUserId(generateUniqueUserId());
+        user.setUserId(userIdGenerator.nextUserId());
         user.setUserName(userName);
         user.setLevel(1);
         user.setCoins(5000);
-        user.setCountry(countries[random.nextInt(countries.length)]);
+        user.setCountry(COUNTRIES.get(ThreadLocalRandom.current().nextInt(COUNTRIES.size())));
         user.setInTournament(false);
         user.setRewardClaimed(true);
-        return repository.save(user);
+        return user;
     }
 
     /**
@@ -45,54 +133,166 @@ public class UserService {
      * @return The User entity with the specified ID, or null if no such user exists.
      */
     public User getUser(String userId) {
-        return repository.findByUserId(userId);
+        return scoreBuffer.apply(repository.findByUserId(userId));
     }
 
     /**
-     * Retrieves all users.
+     * Retrieves all users as UserDTOs. Rows are read without loading entities into the persistence context or
+     * the second-level cache, but the whole list is held in memory; large tables are served by
+     * {@link #getUsersPage} and {@link #exportUsers} instead.
      *
-     * @return A list of all User entities.
+     * @return A list of all users, ordered by their database ID.
      */
-    public List<User> getAllUsers() {
-        return repository.findAll();
+    public List<UserDTO> getAllUsers() {
+        List<UserDTO> users = new ArrayList<>();
+        replicaReads.execute(() -> {
+            readUsers(jdbcTemplate, user -> users.add(toDTO(scoreBuffer.apply(user))));
+            return null;
+        });
+        return users;
     }
 
     /**
-     * Updates the level and coins of the user with the specified ID.
+     * Retrieves a page of users ordered by their database ID.
+     *
+     * @param afterId The database ID of the last user of the previous page, or null for the first page.
+     * @param limit The maximum number of users to return.
+     * @return The users of the page and the cursor of the next page, which is null after the last page.
+     */
+    public UserPageDTO getUsersPage(Long afterId, int limit) {
+        List<User> users = replicaReads.execute(() ->
+                repository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0L, PageRequest.of(0, limit)));
+        if (scoreBuffer.isEnabled()) {
+            users.replaceAll(scoreBuffer::apply);
+        }
+        Long nextAfterId = users.size() == limit ? users.get(users.size() - 1).getId() : null;
+        return new UserPageDTO(users.stream().map(this::toDTO).toList(), nextAfterId);
+    }
+
+    /**
+     * Writes all users as newline-delimited JSON, one UserDTO per line. Rows are read from a forward-only
+     * cursor and written as they arrive, so memory use does not grow with the number of users.
+     *
+     * @param out The stream to write the users to. It is flushed but not closed.
+     * @throws IOException If writing to the stream fails.
+     */
+    public void exportUsers(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(exportFetchSize);
+        try {
+            replicaReads.execute(() -> {
+                readUsers(cursor, user -> {
+                    try {
+                        writer.writeValue(generator, toDTO(scoreBuffer.apply(user)));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.close();
+    }
+
+    /**
+     * Reads all users ordered by their database ID and hands each one over as soon as its row arrives.
+     *
+     * @param template The JdbcTemplate to read with, e.g. one with a fetch size set.
+     * @param consumer Receives each user.
+     */
+    private void readUsers(JdbcTemplate template, Consumer<User> consumer) {
+        template.query("SELECT id, user_id, user_name, level, coins, country, created_at, in_tournament, reward_claimed, version " +
+                "FROM user ORDER BY id", rs -> {
+            consumer.accept(new User(rs.getLong("id"), rs.getString("user_id"), rs.getString("user_name"),
+                    rs.getInt("level"), rs.getInt("coins"), rs.getString("country"), rs.getTimestamp("created_at"),
+                    rs.getBoolean("in_tournament"), rs.getBoolean("reward_claimed"), rs.getLong("version")));
+        });
+    }
+
+    /**
+     * Copies the fields of a user that are served to clients, leaving out internal ones such as the version.
+     *
+     * @param user The user to copy.
+     * @return The UserDTO of the user.
+     */
+    private UserDTO toDTO(User user) {
+        return new UserDTO(user.getId(), user.getUserId(), user.getUserName(), user.getLevel(), user.getCoins(),
+                user.getCountry(), user.getCreatedAt(), user.isInTournament(), user.isRewardClaimed());
+    }
+
+    /**
+     * Updates the level and coins of the user with the specified ID. The user is read through the second-level
+     * cache and the increment only applies to the version that was read, so the updated user is the read copy
+     * plus the increment and the row is not read again. A stale copy fails the increment, which evicts it,
+     * and is read again from the database.
      *
      * @param userId The ID of the user to update.
      * @return The updated User entity, or null if no such user exists.
      */
     public User updateLevel(String userId) {
-        User user = repository.findByUserId(userId);
-        if (user != null) {
-            user.setLevel(user.getLevel() + 1);
-            user.setCoins(user.getCoins() + 25);
-            return repository.save(user);
+        if (scoreBuffer.isEnabled()) {
+            User user = repository.findByUserId(userId);
+            return user != null ? scoreBuffer.recordLevel(user, 1, 25) : null;
+        }
+        User user;
+        while ((user = repository.findByUserId(userId)) != null) {
+            if (repository.incrementLevel(user.getId(), user.getVersion(), 1, 25) == 1) {
+                return new User(user.getId(), user.getUserId(), user.getUserName(), user.getLevel() + 1,
+                        user.getCoins() + 25, user.getCountry(), user.getCreatedAt(), user.isInTournament(),
+                        user.isRewardClaimed(), user.getVersion() + 1);
+            }
         }
         return null;
     }
 
     /**
-     * Generates a unique user ID.
+     * Updates the users that match the filters with set-based statements over ranges of database IDs,
+     * committing each range on its own and logging the progress. Level increments buffered in write-behind
+     * mode are written first, so they are not applied on top of the new values later.
      *
-     * @return A unique user ID.
+     * @param update The filters and the values to set.
+     * @return A report of the rows updated and the time it took.
+     * @throws IllegalArgumentException If neither a level nor coins are given.
      */
-    private String generateUniqueUserId() {
-        // Implement a method to generate a unique user ID
-        return "USER" + System.currentTimeMillis();
+    public BulkUpdateReportDTO updateUsers(UserBulkUpdateDTO update) {
+        if (update.getLevel() == null && update.getCoins() == null) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+        long start = System.currentTimeMillis();
+        if (scoreBuffer.isEnabled()) {
+            scoreBuffer.flush();
+        }
+
+        long maxId = repository.findMaxId();
+        long updated = 0;
+        int chunks = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += bulkUpdateChunkSize) {
+            long chunkFrom = fromId;
+            long toId = Math.min(fromId + bulkUpdateChunkSize - 1, maxId);
+            Integer rows = transactionTemplate.execute(status -> repository.updateRange(update, chunkFrom, toId));
+            updated += rows != null ? rows : 0;
+            chunks++;
+            System.out.println("Bulk user update: " + updated + " users updated, IDs up to " + toId + " of " + maxId + " done");
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Bulk user update: " + updated + " users updated in " + elapsed + " ms");
+        return new BulkUpdateReportDTO(updated, chunks, elapsed);
     }
 
     /**
      * For testing purposes only. Updates all users to level 25 with 5000 coins.
      */
     public void test() {
-        List<User> allUsers = repository.findAll();
-        for (User user : allUsers) {
-            user.setLevel(25);
-            user.setCoins(5000);
-            repository.save(user);
-        }
+        updateUsers(new UserBulkUpdateDTO(null, null, null, null, 25, 5000));
         System.out.println("All the users are updated");
     }
 
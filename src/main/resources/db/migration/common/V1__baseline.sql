@@ -0,0 +1,60 @@
+-- Schema as created by Hibernate before migrations were introduced. Databases created that way are
+-- baselined at this version, so this script only runs on empty databases.
+
+CREATE TABLE user (
+    id BIGINT NOT NULL PRIMARY KEY,
+    user_id VARCHAR(255) NOT NULL,
+    user_name VARCHAR(255) NOT NULL,
+    level INT NOT NULL,
+    coins INT NOT NULL,
+    country VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    in_tournament BOOLEAN NOT NULL,
+    reward_claimed BOOLEAN NOT NULL,
+    CONSTRAINT uk_user_user_id UNIQUE (user_id)
+);
+
+CREATE TABLE tournament (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    tournament_name VARCHAR(255) NOT NULL,
+    start_time DATETIME(6) NOT NULL,
+    end_time DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_tournament_window ON tournament (start_time, end_time);
+
+CREATE TABLE tournament_group (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    tournament_id BIGINT NOT NULL,
+    competition_started BOOLEAN NOT NULL,
+    CONSTRAINT fk_tournament_group_tournament FOREIGN KEY (tournament_id) REFERENCES tournament (id)
+);
+
+CREATE TABLE user_group (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
+    score INT NOT NULL,
+    active BOOLEAN NOT NULL,
+    CONSTRAINT fk_user_group_user FOREIGN KEY (user_id) REFERENCES user (id),
+    CONSTRAINT fk_user_group_group FOREIGN KEY (group_id) REFERENCES tournament_group (id)
+);
+
+CREATE TABLE pending_reward (
+    user_group_id BIGINT NOT NULL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    tournament_id BIGINT NOT NULL,
+    coins INT NOT NULL,
+    claimed BOOLEAN NOT NULL
+);
+
+CREATE INDEX idx_pending_reward_user ON pending_reward (user_id, claimed);
+
+CREATE TABLE tournament_finalization (
+    tournament_id BIGINT NOT NULL PRIMARY KEY,
+    last_user_id BIGINT NOT NULL,
+    rows_updated BIGINT NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    completed_at DATETIME(6),
+    settled_at DATETIME(6)
+);
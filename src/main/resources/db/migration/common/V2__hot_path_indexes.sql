@@ -0,0 +1,5 @@
+-- The active membership of a user (findByUserIdAndActive), covering every column of user_group
+CREATE INDEX idx_user_group_user_active ON user_group (user_id, active, group_id, score);
+
+-- Group leaderboards (findByGroupIdOrderByScoreDesc, findLeaderboardRows), read in score order
+CREATE INDEX idx_user_group_group_score ON user_group (group_id, score, user_id, active);
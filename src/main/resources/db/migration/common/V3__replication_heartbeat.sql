@@ -0,0 +1,7 @@
+-- Written on the primary every heartbeat interval; the value a replica returns tells how far it has replayed
+CREATE TABLE replication_heartbeat (
+    id INT NOT NULL PRIMARY KEY,
+    beat_at BIGINT NOT NULL
+);
+
+INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, 0);
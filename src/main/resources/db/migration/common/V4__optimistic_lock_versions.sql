@@ -0,0 +1,3 @@
+-- Bumped by every write, so a write based on a stale read of the row fails instead of overwriting it
+ALTER TABLE user ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE user_group ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
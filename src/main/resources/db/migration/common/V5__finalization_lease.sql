@@ -0,0 +1,4 @@
+-- The node finalizing a tournament holds a lease on its finalization row, renewed with every committed step.
+-- Other nodes take the finalization over only once the lease has expired, e.g. after the node crashed.
+ALTER TABLE tournament_finalization ADD COLUMN lease_owner VARCHAR(64);
+ALTER TABLE tournament_finalization ADD COLUMN lease_until DATETIME(6);
@@ -0,0 +1,9 @@
+-- Slots of a group are reserved with a conditional update of its row, so nodes whose matchmaking indexes
+-- disagree can never put two users of the same country, or more than five users, into one group.
+ALTER TABLE tournament_group ADD COLUMN member_count INT NOT NULL DEFAULT 0;
+ALTER TABLE tournament_group ADD COLUMN member_countries VARCHAR(255) NOT NULL DEFAULT ';';
+
+UPDATE tournament_group SET
+    member_count = (SELECT COUNT(*) FROM user_group ug WHERE ug.group_id = tournament_group.id),
+    member_countries = CONCAT(';', COALESCE((SELECT GROUP_CONCAT(u.country SEPARATOR ';') FROM user_group ug
+        JOIN user u ON u.id = ug.user_id WHERE ug.group_id = tournament_group.id), ''), ';');
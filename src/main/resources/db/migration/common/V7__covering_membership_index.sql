@@ -0,0 +1,7 @@
+-- Since V4 the active membership lookup (findByUserIdAndActive) also reads the version, which
+-- idx_user_group_user_active lacks, so every lookup went back to the table row. The new index covers
+-- every column of user_group again. It is created before the old one is dropped, since MySQL needs an
+-- index on user_id for fk_user_group_user at all times.
+CREATE INDEX idx_user_group_user_active_version ON user_group (user_id, active, group_id, score, version);
+
+DROP INDEX idx_user_group_user_active ON user_group;
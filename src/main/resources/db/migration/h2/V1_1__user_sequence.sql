@@ -0,0 +1,2 @@
+-- The increment must match the allocation size of the user ID generator
+CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 50;
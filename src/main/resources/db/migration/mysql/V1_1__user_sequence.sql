@@ -0,0 +1,9 @@
+-- MySQL has no sequences, Hibernate emulates user_seq with a single row table. The pooled optimizer
+-- hands out the 50 IDs below the value it reads, so the value must be at least the largest ID plus 50.
+CREATE TABLE IF NOT EXISTS user_seq (
+    next_val BIGINT
+);
+
+INSERT INTO user_seq (next_val) SELECT 0 FROM DUAL WHERE NOT EXISTS (SELECT * FROM user_seq);
+
+UPDATE user_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM user));
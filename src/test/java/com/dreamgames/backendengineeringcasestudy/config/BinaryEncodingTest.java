@@ -0,0 +1,63 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryEncodingTest {
+
+    private static final String USERS = "/api/user/getAllUsers";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void jsonStaysTheDefault() throws Exception {
+        MvcResult result = mockMvc.perform(get(USERS)).andReturn();
+
+        assertTrue(result.getResponse().getContentType().startsWith("application/json"));
+    }
+
+    @Test
+    void binaryEncodingsCarryTheSameContentInFewerBytes() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            userRepository.save(new User(null, "USERENC" + i, "enc" + i, 25, 4000, "Germany", new Date(), true, false, 0));
+        }
+
+        byte[] json = body(USERS, "application/json");
+        byte[] smile = body(USERS, "application/x-jackson-smile");
+        byte[] cbor = body(USERS, "application/cbor");
+
+        JsonNode expected = new ObjectMapper().readTree(json);
+        assertEquals(expected, new ObjectMapper(new SmileFactory()).readTree(smile));
+        assertEquals(expected, new ObjectMapper(new CBORFactory()).readTree(cbor));
+        assertTrue(smile.length < json.length, "Smile " + smile.length + " bytes, JSON " + json.length);
+        assertTrue(cbor.length < json.length, "CBOR " + cbor.length + " bytes, JSON " + json.length);
+    }
+
+    private byte[] body(String url, String accept) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).header("Accept", accept)).andReturn();
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentType().startsWith(accept), result.getResponse().getContentType());
+        return result.getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,113 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyFilter filter(int maxEntries) {
+        IdempotencyCache cache = new IdempotencyCache(60_000, maxEntries);
+        cache.clock = now::get;
+        return new IdempotencyFilter(cache, 10_000);
+    }
+
+    private final FilterChain completeLevel = (request, response) -> {
+        response.setContentType("text/plain");
+        response.getWriter().write("Level completed " + executions.incrementAndGet());
+    };
+
+    @Test
+    void retriesGetTheFirstResponseUntilItExpires() throws Exception {
+        IdempotencyFilter filter = filter(100);
+
+        MockHttpServletResponse first = send(filter, "/api/tournament/completeLevel/USER1", "key-1", completeLevel);
+        MockHttpServletResponse retry = send(filter, "/api/tournament/completeLevel/USER1", "key-1", completeLevel);
+        MockHttpServletResponse otherUser = send(filter, "/api/tournament/completeLevel/USER2", "key-1", completeLevel);
+
+        assertEquals("Level completed 1", first.getContentAsString());
+        assertEquals("Level completed 1", retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("Level completed 2", otherUser.getContentAsString());
+
+        now.addAndGet(60_000);
+        assertEquals("Level completed 3",
+                send(filter, "/api/tournament/completeLevel/USER1", "key-1", completeLevel).getContentAsString());
+    }
+
+    @Test
+    void duplicatesWaitForTheRunningRequest() throws Exception {
+        IdempotencyFilter filter = filter(100);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            completeLevel.doFilter(request, response);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<MockHttpServletResponse> first = executor.submit(() -> send(filter, "/api/tournament/enterTournament/USER1", "key-2", slow));
+        running.await();
+        Future<MockHttpServletResponse> duplicate = executor.submit(() -> send(filter, "/api/tournament/enterTournament/USER1", "key-2", slow));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals("Level completed 1", first.get(10, TimeUnit.SECONDS).getContentAsString());
+        assertEquals("Level completed 1", duplicate.get(10, TimeUnit.SECONDS).getContentAsString());
+        assertEquals(1, executions.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void keepsAtMostMaxEntriesAndForgetsServerErrors() throws Exception {
+        IdempotencyFilter filter = filter(2);
+        FilterChain failing = (request, response) -> ((HttpServletResponse) response).setStatus(503);
+
+        send(filter, "/api/tournament/claimReward/USER1", "a", completeLevel);
+        send(filter, "/api/tournament/claimReward/USER1", "b", completeLevel);
+        send(filter, "/api/tournament/claimReward/USER1", "c", completeLevel);
+        assertEquals("Level completed 4",
+                send(filter, "/api/tournament/claimReward/USER1", "a", completeLevel).getContentAsString());
+
+        assertEquals(503, send(filter, "/api/tournament/claimReward/USER1", "d", failing).getStatus());
+        assertEquals("Level completed 5",
+                send(filter, "/api/tournament/claimReward/USER1", "d", completeLevel).getContentAsString());
+        assertEquals(5, executions.get());
+    }
+
+    @Test
+    void requestsWithoutKeyAlwaysRun() throws Exception {
+        IdempotencyFilter filter = filter(100);
+
+        send(filter, "/api/tournament/completeLevel/USER1", null, completeLevel);
+        send(filter, "/api/tournament/completeLevel/USER1", null, completeLevel);
+
+        assertEquals(2, executions.get());
+    }
+
+    private static MockHttpServletResponse send(IdempotencyFilter filter, String uri, String key, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,139 @@
+package com.dreamgames.backendengineeringcasestudy.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "datasource.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        // Heartbeats are driven by the tests
+        "datasource.replica.heartbeat-interval-ms=3600000",
+        "datasource.replica.max-lag-ms=2000"
+})
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaReads replicaReads;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource replicaDataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(replicaDataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2").load().migrate();
+        replica = new JdbcTemplate(replicaDataSource);
+
+        // The same tournament differs between the databases, so a read tells which one served it
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update("DELETE FROM tournament");
+        jdbcTemplate.update("INSERT INTO tournament (id, tournament_name, start_time, end_time) VALUES (1, 'primary', ?, ?)", now, now);
+        replica.update("DELETE FROM tournament");
+        replica.update("INSERT INTO tournament (id, tournament_name, start_time, end_time) VALUES (1, 'replica', ?, ?)", now, now);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.close();
+    }
+
+    @Test
+    void replicaReadsGoToReplicaWithinLagLimit() {
+        replicate(System.currentTimeMillis());
+
+        assertEquals("replica", replicaRead());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replicate(System.currentTimeMillis() - 60_000);
+
+        assertEquals("primary", replicaRead());
+    }
+
+    @Test
+    void otherReadOnlyTransactionsStayOnPrimary() {
+        replicate(System.currentTimeMillis());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertEquals("primary", readOnly.execute(status -> tournamentName()));
+    }
+
+    @Test
+    void clientReadsItsOwnWrites() {
+        long replicatedUpTo = System.currentTimeMillis() - 100;
+        replicate(replicatedUpTo);
+
+        ReadYourWrites.open(replicatedUpTo - 1_000, null);
+        assertEquals("replica", replicaRead());
+
+        ReadYourWrites.open(replicatedUpTo + 50, null);
+        assertEquals("primary", replicaRead());
+
+        ReadYourWrites.open(null, null);
+        jdbcTemplate.update("UPDATE tournament SET tournament_name = 'primary' WHERE id = 1");
+        assertNotNull(ReadYourWrites.lastWrite());
+        assertEquals("primary", replicaRead());
+    }
+
+    @Test
+    void onlyCommittedWritesUpdateTheWriteTime() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ReadYourWrites.open(null, null);
+
+        transaction.executeWithoutResult(status -> tournamentName());
+        assertNull(ReadYourWrites.lastWrite());
+
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE tournament SET tournament_name = 'rolled back' WHERE id = 1");
+            status.setRollbackOnly();
+        });
+        assertNull(ReadYourWrites.lastWrite());
+
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE tournament SET tournament_name = 'primary' WHERE id = 1");
+            // Not visible to a replica before the commit, so not reported yet
+            assertNull(ReadYourWrites.lastWrite());
+        });
+        assertNotNull(ReadYourWrites.lastWrite());
+    }
+
+    /**
+     * Pretends the replica replayed the primary up to the given time and lets the monitor read it.
+     */
+    private void replicate(long upTo) {
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", upTo);
+        routingDataSource.getLagMonitor().probe();
+    }
+
+    private String replicaRead() {
+        return replicaReads.execute(this::tournamentName);
+    }
+
+    private String tournamentName() {
+        return jdbcTemplate.queryForObject("SELECT tournament_name FROM tournament WHERE id = 1", String.class);
+    }
+}
@@ -0,0 +1,223 @@
+package com.dreamgames.backendengineeringcasestudy.controller;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import com.dreamgames.backendengineeringcasestudy.service.ActiveTournamentHolder;
+import com.dreamgames.backendengineeringcasestudy.service.TournamentService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {
+        "tournament.groups.max-page-size=2",
+        "tournament.group-leaderboard.max-batch-size=3"
+})
+@AutoConfigureMockMvc
+class TournamentControllerTest {
+
+    private static final String GROUPS = "/api/tournament/getGroups";
+
+    private static final String LEADERBOARDS = "/api/tournament/groupLeaderboards";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Tournament tournament;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM pending_reward");
+        jdbcTemplate.update("DELETE FROM tournament_finalization");
+        jdbcTemplate.update("DELETE FROM user_group");
+        jdbcTemplate.update("DELETE FROM tournament_group");
+        jdbcTemplate.update("DELETE FROM tournament");
+
+        long now = System.currentTimeMillis();
+        tournament = new Tournament();
+        tournament.setTournamentName("Controller Test");
+        tournament.setStartTime(new Date(now - 3_600_000));
+        tournament.setEndTime(new Date(now + 3_600_000));
+        tournament = tournamentRepository.save(tournament);
+        activeTournamentHolder.refresh();
+    }
+
+    @Test
+    void pagesThroughGroupsInIdOrderUntilAnEmptyPage() throws Exception {
+        List<Long> groupIds = enterGroups(5);
+
+        JsonNode first = getJson(GROUPS + "?limit=2");
+        assertEquals(groupIds.subList(0, 2), groupIdsOf(first));
+        JsonNode second = getJson(GROUPS + "?limit=2&afterGroupId=" + groupIds.get(1));
+        assertEquals(groupIds.subList(2, 4), groupIdsOf(second));
+        JsonNode last = getJson(GROUPS + "?limit=2&afterGroupId=" + groupIds.get(3));
+        assertEquals(groupIds.subList(4, 5), groupIdsOf(last));
+        assertEquals(1, last.get(0).get("users").size());
+
+        assertEquals(0, getJson(GROUPS + "?limit=2&afterGroupId=" + groupIds.get(4)).size());
+    }
+
+    @Test
+    void capsThePageSizeAtTheConfiguredMaximum() throws Exception {
+        List<Long> groupIds = enterGroups(3);
+
+        assertEquals(groupIds.subList(0, 2), groupIdsOf(getJson(GROUPS + "?limit=100000")));
+        assertEquals(groupIds.subList(0, 2), groupIdsOf(getJson(GROUPS + "?afterGroupId=0")));
+        assertEquals(groupIds.subList(0, 1), groupIdsOf(getJson(GROUPS + "?limit=0")));
+    }
+
+    @Test
+    void returnsEveryGroupWithoutPagingParameters() throws Exception {
+        List<Long> groupIds = enterGroups(3);
+
+        JsonNode groups = getJson(GROUPS);
+        List<Long> returned = groupIdsOf(groups);
+        returned.sort(null);
+        assertEquals(groupIds, returned);
+        groups.forEach(group -> assertEquals(1, group.get("users").size()));
+    }
+
+    @Test
+    void returnsTheLeaderboardsOfSeveralGroupsWithOneQuery() throws Exception {
+        List<String> fullGroup = new ArrayList<>();
+        for (String country : List.of("Turkey", "United States", "United Kingdom", "France", "Germany")) {
+            fullGroup.add(enterUser("USERBOARD", country));
+        }
+        String waiting = enterUser("USERBOARD", "Turkey");
+        for (int i = 0; i < 3; i++) {
+            tournamentService.completeLevel(fullGroup.get(2));
+        }
+        tournamentService.completeLevel(fullGroup.get(4));
+        Long started = groupOf(fullGroup.get(0));
+        Long open = groupOf(waiting);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JsonNode leaderboards = getJson(LEADERBOARDS + "?groupIds=" + started + "," + open);
+
+        assertEquals(1, leaderboardQueryCount(statistics));
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(List.of(fullGroup.get(2), fullGroup.get(4), fullGroup.get(0), fullGroup.get(1), fullGroup.get(3)),
+                userIdsOf(leaderboards.get(started.toString())));
+        assertEquals(3, leaderboards.get(started.toString()).get(0).get("score").asInt());
+        assertEquals(List.of(waiting), userIdsOf(leaderboards.get(open.toString())));
+    }
+
+    @Test
+    void groupsOutsideTheCurrentTournamentHaveEmptyLeaderboards() throws Exception {
+        String userId = enterUser("USERBOARD", "France");
+        Long current = groupOf(userId);
+        Tournament past = new Tournament();
+        past.setTournamentName("Past Tournament");
+        past.setStartTime(new Date(System.currentTimeMillis() - 7_200_000));
+        past.setEndTime(new Date(System.currentTimeMillis() - 3_600_000));
+        past = tournamentRepository.save(past);
+        jdbcTemplate.update("INSERT INTO tournament_group (tournament_id, competition_started) VALUES (?, true)", past.getId());
+        Long other = jdbcTemplate.queryForObject("SELECT id FROM tournament_group WHERE tournament_id = ?", Long.class, past.getId());
+        jdbcTemplate.update("INSERT INTO user_group (user_id, group_id, score, active) " +
+                "SELECT id, ?, 7, false FROM user WHERE user_id = ?", other, userId);
+
+        JsonNode leaderboards = getJson(LEADERBOARDS + "?groupIds=" + current + "," + other + ",999999999");
+
+        assertEquals(3, leaderboards.size());
+        assertEquals(1, leaderboards.get(current.toString()).size());
+        assertEquals(0, leaderboards.get(other.toString()).size());
+        assertEquals(0, leaderboards.get("999999999").size());
+    }
+
+    @Test
+    void rejectsMoreGroupsThanTheMaxBatchSize() throws Exception {
+        assertEquals(200, mockMvc.perform(get(LEADERBOARDS + "?groupIds=1,2,3")).andReturn().getResponse().getStatus());
+        assertEquals(400, mockMvc.perform(get(LEADERBOARDS + "?groupIds=1,2,3,4")).andReturn().getResponse().getStatus());
+    }
+
+    /**
+     * Enters users of the same country, so that each of them opens a group of its own.
+     *
+     * @return The IDs of the opened groups in ascending order.
+     */
+    private List<Long> enterGroups(int count) {
+        for (int i = 0; i < count; i++) {
+            enterUser("USERPAGE", "Turkey");
+        }
+        List<Long> groupIds = jdbcTemplate.queryForList("SELECT id FROM tournament_group ORDER BY id", Long.class);
+        assertEquals(count, groupIds.size());
+        return groupIds;
+    }
+
+    private String enterUser(String prefix, String country) {
+        String userId = prefix + System.nanoTime();
+        userRepository.save(new User(null, userId, userId, 25, 5000, country, new Date(), false, true, 0));
+        assertTrue(tournamentService.enterTournament(userId));
+        return userId;
+    }
+
+    private Long groupOf(String userId) {
+        return jdbcTemplate.queryForObject("SELECT ug.group_id FROM user_group ug JOIN user u ON u.id = ug.user_id " +
+                "WHERE u.user_id = ? AND ug.active = true", Long.class, userId);
+    }
+
+    private long leaderboardQueryCount(Statistics statistics) {
+        return Arrays.stream(statistics.getQueries())
+                .filter(query -> query.contains("order by g.id, ug.score desc"))
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+                .sum();
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).header("Accept", "application/json")).andReturn();
+        assertEquals(200, result.getResponse().getStatus());
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    private List<String> userIdsOf(JsonNode leaderboard) {
+        List<String> userIds = new ArrayList<>();
+        leaderboard.forEach(entry -> userIds.add(entry.get("userId").asText()));
+        return userIds;
+    }
+
+    private List<Long> groupIdsOf(JsonNode groups) {
+        List<Long> groupIds = new ArrayList<>();
+        groups.forEach(group -> groupIds.add(group.get("groupId").asLong()));
+        return groupIds;
+    }
+}
@@ -0,0 +1,143 @@
+package com.dreamgames.backendengineeringcasestudy.controller;
+
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "user.page.max-size=3")
+@AutoConfigureMockMvc
+class UserControllerTest {
+
+    private static final String USERS = "/api/user/getUsers";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void pagesThroughUsersInIdOrder() throws Exception {
+        long lastId = lastUserId();
+        List<Long> ids = saveUsers("USERPAGED", 5);
+
+        JsonNode first = getJson(USERS + "?limit=2&afterId=" + lastId);
+        assertEquals(ids.subList(0, 2), idsOf(first));
+        assertEquals(ids.get(1), first.get("nextAfterId").asLong());
+        JsonNode second = getJson(USERS + "?limit=2&afterId=" + ids.get(1));
+        assertEquals(ids.subList(2, 4), idsOf(second));
+        JsonNode last = getJson(USERS + "?limit=2&afterId=" + ids.get(3));
+        assertEquals(ids.subList(4, 5), idsOf(last));
+        assertTrue(last.get("nextAfterId").isNull());
+
+        JsonNode user = last.get("users").get(0);
+        assertEquals("Germany", user.get("country").asText());
+        assertFalse(user.has("version"));
+    }
+
+    @Test
+    void endsWithAnEmptyPageWhenTheLastPageIsFull() throws Exception {
+        long lastId = lastUserId();
+        List<Long> ids = saveUsers("USERFULL", 2);
+
+        JsonNode full = getJson(USERS + "?limit=2&afterId=" + lastId);
+        assertEquals(ids, idsOf(full));
+        assertEquals(ids.get(1), full.get("nextAfterId").asLong());
+
+        JsonNode empty = getJson(USERS + "?limit=2&afterId=" + ids.get(1));
+        assertEquals(0, empty.get("users").size());
+        assertTrue(empty.get("nextAfterId").isNull());
+    }
+
+    @Test
+    void capsThePageSizeAtTheConfiguredMaximum() throws Exception {
+        long lastId = lastUserId();
+        List<Long> ids = saveUsers("USERCAP", 4);
+
+        assertEquals(ids.subList(0, 3), idsOf(getJson(USERS + "?limit=100000&afterId=" + lastId)));
+        assertEquals(ids.subList(0, 3), idsOf(getJson(USERS + "?afterId=" + lastId)));
+        assertEquals(ids.subList(0, 1), idsOf(getJson(USERS + "?limit=0&afterId=" + lastId)));
+    }
+
+    @Test
+    void exportsEveryUserAsOneJsonLine() throws Exception {
+        List<Long> ids = saveUsers("USEREXPORT", 3);
+
+        MvcResult started = mockMvc.perform(get("/api/user/exportUsers")).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertTrue(result.getResponse().getContentType().startsWith("application/x-ndjson"));
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.endsWith("\n"));
+        List<Long> exported = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode user = objectMapper.readTree(line);
+            assertFalse(user.has("version"));
+            exported.add(user.get("id").asLong());
+        }
+        assertEquals(jdbcTemplate.queryForList("SELECT id FROM user ORDER BY id", Long.class), exported);
+        assertTrue(exported.containsAll(ids));
+    }
+
+    @Test
+    void listsAllUsersWithoutInternalFields() throws Exception {
+        List<Long> ids = saveUsers("USERALL", 2);
+
+        JsonNode users = getJson("/api/user/getAllUsers");
+
+        List<Long> listed = new ArrayList<>();
+        users.forEach(user -> {
+            assertFalse(user.has("version"));
+            listed.add(user.get("id").asLong());
+        });
+        assertEquals(jdbcTemplate.queryForList("SELECT id FROM user ORDER BY id", Long.class), listed);
+        assertTrue(listed.containsAll(ids));
+    }
+
+    private List<Long> saveUsers(String prefix, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String userId = prefix + System.nanoTime();
+            ids.add(userRepository.save(new User(null, userId, userId, 25, 5000, "Germany", new Date(), false, true, 0)).getId());
+        }
+        return ids;
+    }
+
+    private long lastUserId() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM user", Long.class);
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).header("Accept", "application/json")).andReturn();
+        assertEquals(200, result.getResponse().getStatus());
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    private List<Long> idsOf(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("users").forEach(user -> ids.add(user.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,52 @@
+package com.dreamgames.backendengineeringcasestudy.load;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects request latencies per endpoint and summarizes them as throughput and percentiles.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long startNanos, long endNanos, boolean success) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, e -> new Endpoint());
+        stats.latencies.add(endNanos - startNanos);
+        stats.firstStart.accumulateAndGet(startNanos, Math::min);
+        stats.lastEnd.accumulateAndGet(endNanos, Math::max);
+        if (!success) {
+            stats.errors.incrementAndGet();
+        }
+    }
+
+    String report() {
+        StringBuilder report = new StringBuilder(String.format("%-22s %8s %7s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms"));
+        new TreeMap<>(endpoints).forEach((name, stats) -> {
+            long[] sorted = stats.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            double seconds = Math.max(1, stats.lastEnd.get() - stats.firstStart.get()) / 1e9;
+            report.append(String.format("%-22s %8d %7d %10.1f %10.2f %10.2f %10.2f%n", name, sorted.length,
+                    stats.errors.get(), sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999)));
+        });
+        return report.toString();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Endpoint {
+        private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong lastEnd = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
@@ -0,0 +1,51 @@
+package com.dreamgames.backendengineeringcasestudy.load;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataSource that counts the SQL statements prepared on its connections, batched statements counting once.
+ */
+class StatementCountingDataSource extends DelegatingDataSource {
+
+    private final LongAdder statements = new LongAdder();
+
+    StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    long statementCount() {
+        return statements.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("prepareStatement") || name.equals("createStatement") || name.equals("prepareCall")) {
+                        statements.increment();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,199 @@
+package com.dreamgames.backendengineeringcasestudy.load;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import com.dreamgames.backendengineeringcasestudy.service.ActiveTournamentHolder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Replays a tournament day over HTTP against the real controllers and the embedded H2 database:
+ * user signups, bulk leveling, the entry spike at tournament open, completeLevel bursts mixed with
+ * leaderboard polls, the end of the tournament and the reward claim stampede.
+ * Reports throughput and latency percentiles per endpoint and SQL statement counts per phase.
+ *
+ * Tagged "load" and excluded from the default build; run with mvn -Pload test.
+ * Scale with -Dload.users, -Dload.threads and -Dload.levels.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER"
+})
+class TournamentDaySimulationTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 500);
+    private static final int THREADS = Integer.getInteger("load.threads", 32);
+    private static final int LEVELS = Integer.getInteger("load.levels", 20);
+
+    @TestConfiguration
+    static class CountingConfiguration {
+        @Bean
+        static BeanPostProcessor statementCountingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)
+                            ? new StatementCountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(THREADS)).build();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final StringBuilder phases = new StringBuilder();
+    private ExecutorService virtualUsers;
+
+    @Test
+    void tournamentDay() throws Exception {
+        virtualUsers = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<String> userIds = phase("signup", () -> run(USERS, i -> {
+                HttpResponse<String> response = post("createUser", "/api/user/createUser/load" + i);
+                return response.statusCode() == 200 ? json(response).get("userId").asText() : null;
+            }));
+            userIds.removeIf(Objects::isNull);
+            assertEquals(USERS, userIds.size(), "Some users could not sign up");
+
+            phase("bulk level", () -> post("test", "/api/user/test"));
+
+            Tournament tournament = openTournament();
+
+            phase("entry spike", () -> run(userIds.size(), i ->
+                    post("enterTournament", "/api/tournament/enterTournament/" + userIds.get(i))));
+
+            phase("play", () -> run(userIds.size(), i -> {
+                String userId = userIds.get(i);
+                for (int level = 0; level < LEVELS; level++) {
+                    post("completeLevel", "/api/tournament/completeLevel/" + userId);
+                    if (level % 5 == 4) {
+                        get("groupLeaderboard", "/api/tournament/groupLeaderboard/" + (1 + i / 5));
+                        get("countryLeaderboard", "/api/tournament/countryLeaderboard");
+                        get("userRank", "/api/tournament/userRank/" + userId + "/" + tournament.getId());
+                    }
+                }
+                return null;
+            }));
+
+            phase("groups", () -> get("getGroups", "/api/tournament/getGroups?limit=100"));
+
+            phase("end", () -> post("end", "/api/tournament/end"));
+
+            phase("claim stampede", () -> run(userIds.size(), i ->
+                    post("claimReward", "/api/tournament/claimReward/" + userIds.get(i))));
+        } finally {
+            virtualUsers.shutdownNow();
+        }
+
+        String report = "Tournament day: " + USERS + " users, " + THREADS + " threads, " + LEVELS + " levels each\n\n"
+                + recorder.report() + "\n" + String.format("%-16s %10s %12s%n", "phase", "ms", "statements") + phases;
+        System.out.println(report);
+        Files.writeString(Path.of("target", "load-simulation-report.txt"), report);
+    }
+
+    private Tournament openTournament() {
+        // The daily tournament runs 00:00-20:00 UTC; open one around the current time so the day can be replayed at any hour
+        Tournament tournament = new Tournament();
+        tournament.setTournamentName("Load Simulation");
+        tournament.setStartTime(new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+        tournament.setEndTime(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        tournament = tournamentRepository.save(tournament);
+        activeTournamentHolder.refresh();
+        return tournament;
+    }
+
+    private <T> T phase(String name, Callable<T> work) throws Exception {
+        long statementsBefore = ((StatementCountingDataSource) dataSource).statementCount();
+        long start = System.nanoTime();
+        T result = work.call();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long statements = ((StatementCountingDataSource) dataSource).statementCount() - statementsBefore;
+        phases.append(String.format("%-16s %10d %12d%n", name, elapsedMillis, statements));
+        return result;
+    }
+
+    private <T> List<T> run(int count, Function<Integer, T> virtualUser) throws InterruptedException, ExecutionException {
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            futures.add(virtualUsers.submit(() -> virtualUser.apply(index)));
+        }
+        List<T> results = new ArrayList<>(count);
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private HttpResponse<String> post(String endpoint, String path) {
+        return send(endpoint, HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    private HttpResponse<String> get(String endpoint, String path) {
+        return send(endpoint, HttpRequest.newBuilder(uri(path)).GET().build());
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, start, System.nanoTime(), response.statusCode() < 400);
+            return response;
+        } catch (IOException e) {
+            recorder.record(endpoint, start, System.nanoTime(), false);
+            throw new CompletionException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private JsonNode json(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
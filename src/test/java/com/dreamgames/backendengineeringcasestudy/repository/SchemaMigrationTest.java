@@ -0,0 +1,79 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SchemaMigrationTest {
+
+    private static final Pattern QUOTED_IDENTIFIER = Pattern.compile("\"([A-Z_]+)\"");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void appliesMigrationsInOrder() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL AND \"success\" = TRUE ORDER BY \"installed_rank\"", String.class);
+        assertEquals(List.of("1", "1.1", "2", "3", "4", "5", "6", "7"), versions);
+    }
+
+    @Test
+    void hotPathLookupsAreAnsweredFromCoveringIndexes() {
+        // The active membership of a user, loaded as an entity by completeLevel
+        assertCoveringPlan("USER_GROUP", "IDX_USER_GROUP_USER_ACTIVE_VERSION",
+                "SELECT id, user_id, group_id, score, active, version FROM user_group WHERE user_id = 1 AND active = TRUE");
+        // The part of the rank index fallback (findRankEntry) read from user_group
+        assertCoveringPlan("USER_GROUP", "IDX_USER_GROUP_USER_ACTIVE_VERSION",
+                "SELECT id, group_id, score FROM user_group WHERE user_id = 1");
+        // The part of a group leaderboard (findLeaderboardRows) read from user_group
+        assertCoveringPlan("USER_GROUP", "IDX_USER_GROUP_GROUP_SCORE",
+                "SELECT id, user_id, score FROM user_group WHERE group_id = 1 ORDER BY score DESC, id");
+        assertCoveringPlan("TOURNAMENT", "IDX_TOURNAMENT_WINDOW",
+                "SELECT id FROM tournament WHERE start_time < CURRENT_TIMESTAMP AND end_time > CURRENT_TIMESTAMP");
+    }
+
+    /**
+     * Asserts that the statement is planned on the index and reads no column the index does not hold,
+     * so the database can answer it without visiting the table rows. H2 does not report index-only
+     * access in its plans, so the columns are compared instead. The primary key counts as covered,
+     * since secondary InnoDB indexes store it with every entry.
+     *
+     * @param table The table the statement reads.
+     * @param index The index the statement must use.
+     * @param sql The statement.
+     */
+    private void assertCoveringPlan(String table, String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue(plan.contains("PUBLIC." + index + ":"), plan);
+
+        Set<String> covered = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS WHERE TABLE_NAME = ? AND INDEX_NAME = ?",
+                String.class, table, index));
+        covered.addAll(jdbcTemplate.queryForList(
+                "SELECT c.COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS c JOIN INFORMATION_SCHEMA.INDEXES i " +
+                        "ON i.INDEX_NAME = c.INDEX_NAME AND i.TABLE_NAME = c.TABLE_NAME " +
+                        "WHERE c.TABLE_NAME = ? AND i.INDEX_TYPE_NAME = 'PRIMARY KEY'", String.class, table));
+
+        Set<String> read = new HashSet<>();
+        Matcher matcher = QUOTED_IDENTIFIER.matcher(plan);
+        while (matcher.find()) {
+            read.add(matcher.group(1));
+        }
+        read.remove("PUBLIC");
+        read.remove(table);
+        assertFalse(read.isEmpty(), plan);
+        read.removeAll(covered);
+        assertEquals(Set.of(), read, "Columns read from the table rows:\n" + plan);
+    }
+}
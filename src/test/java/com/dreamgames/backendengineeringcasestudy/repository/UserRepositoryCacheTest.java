@@ -0,0 +1,98 @@
+package com.dreamgames.backendengineeringcasestudy.repository;
+
+import com.dreamgames.backendengineeringcasestudy.DTO.UserBulkUpdateDTO;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserRepositoryCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void servesUsersFromCacheAndEvictsUpdatedOnes() {
+        User saved = userRepository.save(new User(null, "USERCACHE", "cache", 1, 5000, "Turkey", new Date(), false, true, 0));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        userRepository.findByUserId("USERCACHE");
+        statistics.clear();
+        User cached = userRepository.findByUserId("USERCACHE");
+        assertEquals(saved.getId(), cached.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+
+        assertEquals(1, userRepository.incrementLevel(saved.getId(), cached.getVersion(), 1, 25));
+        // An increment based on the old version does not apply
+        assertEquals(0, userRepository.incrementLevel(saved.getId(), cached.getVersion(), 1, 25));
+        User updated = userRepository.findByUserId("USERCACHE");
+        assertEquals(2, updated.getLevel());
+        assertEquals(5025, updated.getCoins());
+
+        assertNull(userRepository.findByUserId("UNKNOWN"));
+    }
+
+    @Test
+    void insertsUsersInBatchesWithoutCachingThem() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            users.add(new User(null, "USERBULK" + i, "bulk" + i, 1, 5000, "France", new Date(), false, true, 0));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userRepository.insertAll(users);
+
+        assertEquals(500, statistics.getEntityInsertCount());
+        // One statement per batch of 50 and one sequence read per 50 IDs, instead of one per user
+        assertTrue(statistics.getPrepareStatementCount() <= 40, "Statements: " + statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+        assertTrue(users.stream().allMatch(user -> user.getId() != null));
+        assertEquals("bulk499", userRepository.findByUserId("USERBULK499").getUserName());
+    }
+
+    @Test
+    void updatesMatchingUsersInRangeAndEvictsThem() {
+        User turkish = userRepository.save(new User(null, "USERRANGE1", "range1", 3, 100, "Turkey", new Date(), true, true, 0));
+        User french = userRepository.save(new User(null, "USERRANGE2", "range2", 3, 100, "France", new Date(), true, true, 0));
+        userRepository.findByUserId("USERRANGE1");
+        userRepository.findByUserId("USERRANGE2");
+
+        int updated = userRepository.updateRange(new UserBulkUpdateDTO("Turkey", 2, 4, true, 25, 5000),
+                Math.min(turkish.getId(), french.getId()), Math.max(turkish.getId(), french.getId()));
+
+        assertEquals(1, updated);
+        assertEquals(25, userRepository.findByUserId("USERRANGE1").getLevel());
+        assertEquals(5000, userRepository.findByUserId("USERRANGE1").getCoins());
+        assertEquals(3, userRepository.findByUserId("USERRANGE2").getLevel());
+    }
+
+    @Test
+    void rejectsSavingACopyReadBeforeAnIncrement() {
+        User saved = userRepository.save(new User(null, "USERSTALE", "stale", 20, 5000, "Spain", new Date(), false, true, 0));
+        User stale = userRepository.findByUserId("USERSTALE");
+
+        userRepository.incrementLevel(saved.getId(), stale.getVersion(), 1, 25);
+        stale.setCoins(stale.getCoins() - 1000);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> userRepository.save(stale));
+        User current = userRepository.findByUserId("USERSTALE");
+        assertEquals(5025, current.getCoins());
+        assertEquals(stale.getVersion() + 1, current.getVersion());
+    }
+}
@@ -0,0 +1,98 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveTournamentHolderTest {
+
+    @Mock
+    private TournamentRepository tournamentRepository;
+
+    @InjectMocks
+    private ActiveTournamentHolder holder;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(holder, "ttlMillis", 3_600_000L);
+    }
+
+    @Test
+    void servesTheTournamentFromMemoryUntilTheTtlExpires() {
+        Tournament tournament = tournament(1L, 3_600_000);
+        when(tournamentRepository.findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(any(), any()))
+                .thenReturn(Optional.of(tournament));
+
+        assertSame(tournament, holder.get());
+        assertSame(tournament, holder.get());
+        verify(tournamentRepository, times(1)).findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(any(), any());
+
+        ReflectionTestUtils.setField(holder, "ttlMillis", 0L);
+        holder.refresh();
+        assertSame(tournament, holder.get());
+        verify(tournamentRepository, times(3)).findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void remembersThatNoTournamentIsActive() {
+        when(tournamentRepository.findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(any(), any()))
+                .thenReturn(Optional.empty());
+
+        assertNull(holder.get());
+        assertNull(holder.get());
+        verify(tournamentRepository, times(1)).findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void fallsBackToTheRangeQueryOnceTheTournamentEnds() throws Exception {
+        Tournament ending = tournament(1L, 100);
+        Tournament next = tournament(2L, 3_600_000);
+        when(tournamentRepository.findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(any(), any()))
+                .thenReturn(Optional.of(ending), Optional.of(next));
+
+        assertSame(ending, holder.get());
+        Thread.sleep(150);
+
+        // The TTL has not expired, but the end time of the held tournament has passed
+        assertSame(next, holder.get());
+        verify(tournamentRepository, times(2)).findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void refreshReplacesTheHeldTournamentBeforeTheTtlExpires() {
+        Tournament first = tournament(1L, 3_600_000);
+        Tournament created = tournament(2L, 3_600_000);
+        when(tournamentRepository.findFirstByStartTimeBeforeAndEndTimeAfterOrderByIdAsc(any(), any()))
+                .thenReturn(Optional.of(first), Optional.of(created), Optional.empty());
+
+        assertSame(first, holder.get());
+        assertSame(created, holder.refresh());
+        assertSame(created, holder.get());
+        assertNull(holder.refresh());
+        assertNull(holder.get());
+    }
+
+    private static Tournament tournament(Long id, long endsInMillis) {
+        long now = System.currentTimeMillis();
+        Tournament tournament = new Tournament();
+        tournament.setId(id);
+        tournament.setTournamentName("Tournament " + id);
+        tournament.setStartTime(new Date(now - 3_600_000));
+        tournament.setEndTime(new Date(now + endsInMillis));
+        return tournament;
+    }
+}
@@ -0,0 +1,122 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CountryLeaderboardTest {
+
+    @Mock
+    private UserGroupRepository userGroupRepository;
+
+    @InjectMocks
+    private CountryLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(leaderboard, "maxStalenessMillis", 0L);
+        ReflectionTestUtils.setField(leaderboard, "reconcileIntervalMillis", 3_600_000L);
+    }
+
+    @Test
+    void sortsCountriesByTotalScore() {
+        when(userGroupRepository.sumScoresByCountry(1L)).thenReturn(List.of(
+                new Object[]{"Turkey", 3L}, new Object[]{"France", 7L}, new Object[]{"Germany", 5L}));
+        leaderboard.warmUp(1L);
+
+        leaderboard.add(1L, "Turkey", 10);
+
+        assertEquals(List.of("Turkey", "France", "Germany"), new ArrayList<>(leaderboard.get(1L).keySet()));
+        assertEquals(13, leaderboard.get(1L).get("Turkey"));
+    }
+
+    @Test
+    void ignoresScoresOfTournamentsThatAreNotLoaded() {
+        leaderboard.add(1L, "Turkey", 10);
+        when(userGroupRepository.sumScoresByCountry(1L)).thenReturn(List.<Object[]>of(new Object[]{"Turkey", 4L}));
+
+        // The loaded total already holds the score
+        assertEquals(Map.of("Turkey", 4), leaderboard.get(1L));
+    }
+
+    @Test
+    void concurrentScoresAreNotLost() throws Exception {
+        when(userGroupRepository.sumScoresByCountry(1L)).thenReturn(Collections.emptyList());
+        leaderboard.warmUp(1L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int n = 0; n < 10_000; n++) {
+                    leaderboard.add(1L, UserService.COUNTRIES.get(n % UserService.COUNTRIES.size()), 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Map<String, Integer> board = leaderboard.get(1L);
+        assertEquals(UserService.COUNTRIES.size(), board.size());
+        board.values().forEach(total -> assertEquals(16_000, total));
+    }
+
+    @Test
+    void servesTheSnapshotUntilItIsTooStale() {
+        ReflectionTestUtils.setField(leaderboard, "maxStalenessMillis", 3_600_000L);
+        when(userGroupRepository.sumScoresByCountry(1L)).thenReturn(List.<Object[]>of(new Object[]{"Turkey", 1L}));
+        assertEquals(Map.of("Turkey", 1), leaderboard.get(1L));
+
+        leaderboard.add(1L, "Turkey", 1);
+        assertEquals(Map.of("Turkey", 1), leaderboard.get(1L));
+
+        ReflectionTestUtils.setField(leaderboard, "maxStalenessMillis", 0L);
+        assertEquals(Map.of("Turkey", 2), leaderboard.get(1L));
+    }
+
+    @Test
+    void reconcilesWithTheStoredTotals() {
+        when(userGroupRepository.sumScoresByCountry(1L)).thenReturn(
+                List.<Object[]>of(new Object[]{"Turkey", 1L}),
+                List.<Object[]>of(new Object[]{"Turkey", 5L}, new Object[]{"France", 2L}));
+        leaderboard.warmUp(1L);
+        // Scores of other nodes only reach this node through the stored totals
+        leaderboard.add(1L, "Turkey", 1);
+        assertEquals(Map.of("Turkey", 2), leaderboard.get(1L));
+
+        ReflectionTestUtils.setField(leaderboard, "reconcileIntervalMillis", 0L);
+
+        assertEquals(Map.of("Turkey", 5, "France", 2), leaderboard.get(1L));
+        verify(userGroupRepository, atLeast(2)).sumScoresByCountry(1L);
+    }
+
+    @Test
+    void reconcileReloadsOnDemandAndEvictDropsTheTotals() {
+        when(userGroupRepository.sumScoresByCountry(1L)).thenReturn(
+                List.<Object[]>of(new Object[]{"Turkey", 1L}),
+                List.<Object[]>of(new Object[]{"Turkey", 3L}),
+                List.<Object[]>of(new Object[]{"Turkey", 9L}));
+        leaderboard.warmUp(1L);
+
+        leaderboard.reconcile(1L);
+        assertEquals(Map.of("Turkey", 3), leaderboard.get(1L));
+
+        leaderboard.evict(1L);
+        assertEquals(Map.of("Turkey", 9), leaderboard.get(1L));
+        verify(userGroupRepository, times(3)).sumScoresByCountry(1L);
+    }
+}
@@ -0,0 +1,177 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentGroupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupMatchmakingIndexTest {
+
+    @Mock
+    private TournamentGroupRepository tournamentGroupRepository;
+
+    @InjectMocks
+    private GroupMatchmakingIndex index;
+
+    // Countries with a reserved slot per group, as the database sees them across all nodes
+    private final Map<Long, Set<String>> reserved = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(tournamentGroupRepository.reserveSlot(anyLong(), anyString(), anyInt())).thenAnswer(invocation -> {
+            Set<String> countries = reserved.computeIfAbsent(invocation.getArgument(0), id -> new HashSet<>());
+            synchronized (countries) {
+                if (countries.size() >= (int) invocation.getArgument(2) || !countries.add(invocation.getArgument(1))) {
+                    return 0;
+                }
+                return countries.size();
+            }
+        });
+    }
+
+    @Test
+    void fillsGroupWithOneUserPerCountry() {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(Collections.emptyList());
+
+        assertTrue(index.claimSlot(1L, "Turkey").isEmpty());
+        index.registerGroup(1L, 10L, "Turkey");
+
+        assertTrue(index.claimSlot(1L, "Turkey").isEmpty());
+        assertEquals(new GroupMatchmakingIndex.Slot(10L, false), index.claimSlot(1L, "France").orElseThrow());
+        assertEquals(new GroupMatchmakingIndex.Slot(10L, false), index.claimSlot(1L, "Germany").orElseThrow());
+        assertEquals(new GroupMatchmakingIndex.Slot(10L, false), index.claimSlot(1L, "United States").orElseThrow());
+        assertEquals(new GroupMatchmakingIndex.Slot(10L, true), index.claimSlot(1L, "United Kingdom").orElseThrow());
+        assertEquals(0, index.openGroupCount());
+    }
+
+    @Test
+    void rebuildsOpenGroupsFromDatabase() {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(List.of(
+                new Object[]{10L, "Turkey"}, new Object[]{10L, "France"},
+                new Object[]{11L, "Turkey"}, new Object[]{11L, "France"}, new Object[]{11L, "Germany"},
+                new Object[]{11L, "United States"}, new Object[]{11L, "United Kingdom"},
+                new Object[]{12L, null}));
+
+        assertEquals(10L, index.claimSlot(1L, "Germany").orElseThrow().groupId());
+        assertEquals(12L, index.claimSlot(1L, "Turkey").orElseThrow().groupId());
+    }
+
+    @Test
+    void releasedSlotCanBeClaimedAgain() {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(Collections.emptyList());
+        index.registerGroup(1L, 10L, "Turkey");
+
+        assertEquals(10L, index.claimSlot(1L, "France").orElseThrow().groupId());
+        // The entry rolled back, and its reservation with it
+        reserved.get(10L).remove("France");
+        index.releaseSlot(1L, 10L, "France");
+        assertEquals(10L, index.claimSlot(1L, "France").orElseThrow().groupId());
+    }
+
+    @Test
+    void failedReservationKeepsTheSlotOpen() {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(Collections.emptyList());
+        index.registerGroup(1L, 10L, "Turkey");
+        doThrow(new IllegalStateException("connection lost"))
+                .when(tournamentGroupRepository).reserveSlot(10L, "France", GroupMatchmakingIndex.GROUP_SIZE);
+
+        assertThrows(IllegalStateException.class, () -> index.claimSlot(1L, "France"));
+        // The connection is back
+        reset(tournamentGroupRepository);
+        setUp();
+        assertEquals(10L, index.claimSlot(1L, "France").orElseThrow().groupId());
+    }
+
+    @Test
+    void skipsSlotsReservedByAnotherNode() {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(Collections.emptyList());
+        index.registerGroup(1L, 10L, "Turkey");
+        index.registerGroup(1L, 11L, "Turkey");
+        // Another node put a French user into group 10
+        reserved.get(10L).add("France");
+
+        assertEquals(11L, index.claimSlot(1L, "France").orElseThrow().groupId());
+        assertTrue(index.claimSlot(1L, "France").isEmpty());
+        assertEquals(10L, index.claimSlot(1L, "Germany").orElseThrow().groupId());
+    }
+
+    @Test
+    void joinsGroupsOpenedByAnotherNode() {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(Collections.emptyList());
+        index.warmUp(1L);
+        // Another node opened group 20 after this node loaded its index
+        reserved.put(20L, new HashSet<>(Set.of("Turkey")));
+        when(tournamentGroupRepository.findOpenGroups(eq(1L), eq("France"), eq(GroupMatchmakingIndex.GROUP_SIZE), anyInt()))
+                .thenReturn(Map.of(20L, ";Turkey;"));
+
+        assertEquals(new GroupMatchmakingIndex.Slot(20L, false), index.claimSlot(1L, "France").orElseThrow());
+        // The group is indexed from now on
+        assertEquals(new GroupMatchmakingIndex.Slot(20L, false), index.claimSlot(1L, "Germany").orElseThrow());
+        assertEquals(Set.of("Turkey", "France", "Germany"), reserved.get(20L));
+        assertEquals(1, index.openGroupCount());
+    }
+
+    @Test
+    void reportsGroupsFilledByAnotherNode() {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(Collections.emptyList());
+        index.registerGroup(1L, 10L, "Turkey");
+        reserved.get(10L).addAll(List.of("France", "Germany", "United States"));
+
+        assertEquals(new GroupMatchmakingIndex.Slot(10L, true), index.claimSlot(1L, "United Kingdom").orElseThrow());
+        assertEquals(0, index.openGroupCount());
+    }
+
+    @Test
+    void dropsGroupCreatedByARolledBackEntry() {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(Collections.emptyList());
+        index.registerGroup(1L, 10L, "Turkey");
+
+        index.releaseSlot(1L, 10L, "Turkey");
+
+        assertEquals(0, index.openGroupCount());
+        assertTrue(index.claimSlot(1L, "France").isEmpty());
+    }
+
+    @Test
+    void concurrentEntriesNeverOverfillOrRepeatCountries() throws Exception {
+        when(tournamentGroupRepository.findGroupMemberCountries(1L)).thenReturn(Collections.emptyList());
+        Map<Long, List<String>> members = new ConcurrentHashMap<>();
+        AtomicLong groupIds = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String country = UserService.COUNTRIES.get(i % UserService.COUNTRIES.size());
+            futures.add(executor.submit(() -> {
+                Long groupId = index.claimSlot(1L, country).map(GroupMatchmakingIndex.Slot::groupId).orElse(null);
+                if (groupId == null) {
+                    groupId = groupIds.incrementAndGet();
+                    members.computeIfAbsent(groupId, id -> new CopyOnWriteArrayList<>()).add(country);
+                    index.registerGroup(1L, groupId, country);
+                } else {
+                    members.computeIfAbsent(groupId, id -> new CopyOnWriteArrayList<>()).add(country);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (List<String> countries : members.values()) {
+            assertTrue(countries.size() <= GroupMatchmakingIndex.GROUP_SIZE);
+            assertEquals(countries.size(), new HashSet<>(countries).size());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.config.ReplicaReads;
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardStreamsTest {
+
+    @Mock
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Mock
+    private UserGroupRepository userGroupRepository;
+
+    @Mock
+    private CountryLeaderboard countryLeaderboard;
+
+    @Mock
+    private ReplicaReads replicaReads;
+
+    @InjectMocks
+    private LeaderboardStreams streams;
+
+    @BeforeEach
+    void setUp() {
+        // Ticks are driven by the tests
+        ReflectionTestUtils.setField(streams, "tickMillis", 3_600_000L);
+        ReflectionTestUtils.setField(streams, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(streams, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(streams, "senderThreads", 1);
+        ReflectionTestUtils.setField(streams, "sendTimeoutMillis", 100L);
+        streams.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streams.stop();
+    }
+
+    @Test
+    void burstOfChangesIsReadOncePerTick() {
+        Tournament tournament = new Tournament();
+        tournament.setId(1L);
+        when(activeTournamentHolder.get()).thenReturn(tournament);
+        when(userGroupRepository.findLeaderboardRows(eq(1L), anyCollection())).thenReturn(Collections.emptyList());
+        when(replicaReads.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+
+        streams.subscribeGroup(10L);
+        for (int i = 0; i < 100; i++) {
+            streams.groupChanged(10L);
+            streams.groupChanged(20L);
+        }
+        streams.tick();
+        streams.tick();
+
+        verify(userGroupRepository, times(1)).findLeaderboardRows(1L, List.of(10L));
+    }
+
+    @Test
+    void rejectsSubscribersOverTheLimit() {
+        streams.subscribeGroup(10L);
+        streams.subscribeCountries();
+
+        assertThrows(IllegalStateException.class, () -> streams.subscribeGroup(11L));
+        assertEquals(2, streams.subscriberCount());
+    }
+
+    @Test
+    void stalledSendIsDroppedAndFreesTheSenderThread() throws Exception {
+        Tournament tournament = new Tournament();
+        tournament.setId(1L);
+        when(activeTournamentHolder.get()).thenReturn(tournament);
+        when(userGroupRepository.findLeaderboardRows(eq(1L), anyCollection())).thenReturn(Collections.emptyList());
+        when(replicaReads.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+
+        // A client that stopped reading, the send blocks until the thread is interrupted
+        useEmitter(timeout -> new SseEmitter(timeout) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                stalled.countDown();
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+        });
+        streams.subscribeGroup(10L);
+        streams.tick();
+        assertTrue(stalled.await(5, TimeUnit.SECONDS));
+
+        useEmitter(timeout -> new SseEmitter(timeout) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                delivered.countDown();
+            }
+        });
+        streams.subscribeGroup(11L);
+        streams.tick();
+        // The only sender thread is still stuck on the stalled client
+        assertFalse(delivered.await(200, TimeUnit.MILLISECONDS));
+
+        streams.tick();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, streams.subscriberCount());
+    }
+
+    private void useEmitter(Function<Long, SseEmitter> factory) {
+        ReflectionTestUtils.setField(streams, "emitterFactory", factory);
+    }
+}
@@ -0,0 +1,64 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticRetryTest {
+
+    @Mock
+    private TournamentMetrics metrics;
+
+    @InjectMocks
+    private OptimisticRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(retry, "baseBackoffMillis", 1L);
+        ReflectionTestUtils.setField(retry, "maxBackoffMillis", 2L);
+    }
+
+    @Test
+    void runsAgainUntilAnAttemptDoesNotConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        boolean result = retry.execute("enterTournament", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return true;
+        });
+
+        assertTrue(result);
+        assertEquals(3, attempts.get());
+        verify(metrics, times(2)).optimisticLockConflict("enterTournament");
+        verify(metrics, times(2)).optimisticLockRetry("enterTournament");
+        verify(metrics, never()).optimisticLockRetriesExhausted(any());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> retry.execute("enterTournament", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+
+        assertEquals(3, attempts.get());
+        verify(metrics, times(3)).optimisticLockConflict("enterTournament");
+        verify(metrics).optimisticLockRetriesExhausted("enterTournament");
+    }
+}
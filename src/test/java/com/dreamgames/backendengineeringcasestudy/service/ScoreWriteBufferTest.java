@@ -0,0 +1,174 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentGroupRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "tournament.write-behind.enabled=true",
+        "tournament.write-behind.flush-interval-ms=3600000"
+})
+class ScoreWriteBufferTest {
+
+    @Autowired
+    private ScoreWriteBuffer scoreBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private TournamentGroupRepository tournamentGroupRepository;
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void appliesFlushedIncrementsOnlyToCopiesReadBeforeTheFlush() {
+        User user = saveUser("USERFLUSHED");
+        for (int i = 0; i < 3; i++) {
+            scoreBuffer.recordLevel(user, 1, 25);
+        }
+        User readBefore = readRow(user.getId());
+        assertEquals(4, scoreBuffer.apply(readBefore).getLevel());
+
+        scoreBuffer.flush();
+
+        User readAfter = readRow(user.getId());
+        assertEquals(4, readAfter.getLevel());
+        assertEquals(4, scoreBuffer.apply(readAfter).getLevel());
+        assertEquals(175, scoreBuffer.apply(readAfter).getCoins());
+        assertEquals(4, scoreBuffer.apply(readBefore).getLevel());
+
+        scoreBuffer.recordLevel(readAfter, 1, 25);
+        assertEquals(5, scoreBuffer.apply(readBefore).getLevel());
+        assertEquals(5, scoreBuffer.apply(readAfter).getLevel());
+    }
+
+    @Test
+    void readersNeitherMissNorDoubleCountIncrementsWhileFlushing() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(saveUser("USERRACE" + i + "_"));
+        }
+        Map<Long, AtomicInteger> started = new ConcurrentHashMap<>();
+        Map<Long, AtomicInteger> recorded = new ConcurrentHashMap<>();
+        users.forEach(user -> {
+            started.put(user.getId(), new AtomicInteger());
+            recorded.put(user.getId(), new AtomicInteger());
+        });
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<String> violations = new CopyOnWriteArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            int offset = w;
+            writers.add(executor.submit(() -> {
+                for (int n = 0; n < 2_000; n++) {
+                    User user = users.get((n + offset) % users.size());
+                    started.get(user.getId()).incrementAndGet();
+                    scoreBuffer.recordLevel(user, 1, 25);
+                    recorded.get(user.getId()).incrementAndGet();
+                }
+            }));
+        }
+        executor.submit(() -> {
+            while (running.get()) {
+                scoreBuffer.flush();
+            }
+        });
+        for (int r = 0; r < 3; r++) {
+            executor.submit(() -> {
+                Random random = new Random();
+                while (running.get()) {
+                    User user = users.get(random.nextInt(users.size()));
+                    int lower = recorded.get(user.getId()).get();
+                    int seen = scoreBuffer.apply(readRow(user.getId())).getLevel() - 1;
+                    int upper = started.get(user.getId()).get();
+                    if (seen < lower || seen > upper) {
+                        violations.add(user.getUserId() + " saw " + seen + " outside [" + lower + ", " + upper + "]");
+                    }
+                }
+            });
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        running.set(false);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        scoreBuffer.flush();
+        assertEquals(List.of(), violations);
+        for (User user : users) {
+            assertEquals(1 + recorded.get(user.getId()).get(), readRow(user.getId()).getLevel());
+        }
+        assertEquals(0, scoreBuffer.pendingCount());
+    }
+
+    @Test
+    void countsScoresOnceAnotherNodeStartedTheCachedGroup() {
+        jdbcTemplate.update("DELETE FROM pending_reward");
+        jdbcTemplate.update("DELETE FROM tournament_finalization");
+        jdbcTemplate.update("DELETE FROM user_group");
+        jdbcTemplate.update("DELETE FROM tournament_group");
+        jdbcTemplate.update("DELETE FROM tournament");
+        long now = System.currentTimeMillis();
+        Tournament tournament = new Tournament();
+        tournament.setTournamentName("Write-Behind Test");
+        tournament.setStartTime(new Date(now - 3_600_000));
+        tournament.setEndTime(new Date(now + 3_600_000));
+        tournamentRepository.save(tournament);
+        activeTournamentHolder.refresh();
+
+        String userId = "USERSTARTED" + System.nanoTime();
+        User user = userRepository.save(new User(null, userId, userId, 25, 5000, "Turkey", new Date(), false, true, 0));
+        assertTrue(tournamentService.enterTournament(userId));
+        Long groupId = jdbcTemplate.queryForObject("SELECT group_id FROM user_group WHERE user_id = ?", Long.class, user.getId());
+        // This node caches the group while it is still waiting for members
+        assertFalse(tournamentGroupRepository.findById(groupId).orElseThrow().isCompetitionStarted());
+
+        // Another node fills the group and starts it
+        jdbcTemplate.update("UPDATE tournament_group SET competition_started = true WHERE id = ?", groupId);
+        tournamentService.completeLevel(userId);
+        scoreBuffer.flush();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT score FROM user_group WHERE user_id = ?", Integer.class, user.getId()));
+    }
+
+    private User saveUser(String prefix) {
+        String userId = prefix + System.nanoTime();
+        return userRepository.save(new User(null, userId, userId, 1, 100, "Turkey", new Date(), false, true, 0));
+    }
+
+    /**
+     * Reads the committed row, bypassing the second-level cache.
+     */
+    private User readRow(Long id) {
+        return jdbcTemplate.queryForObject("SELECT id, user_id, level, coins, version FROM user WHERE id = ?",
+                (rs, rowNum) -> new User(rs.getLong(1), rs.getString(2), rs.getString(2), rs.getInt(3), rs.getInt(4),
+                        "Turkey", new Date(), false, true, rs.getLong(5)), id);
+    }
+}
@@ -0,0 +1,111 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.entity.UserGroup;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class TournamentEntryTest {
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private UserGroupRepository userGroupRepository;
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Tournament tournament;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM pending_reward");
+        jdbcTemplate.update("DELETE FROM tournament_finalization");
+        jdbcTemplate.update("DELETE FROM user_group");
+        jdbcTemplate.update("DELETE FROM tournament_group");
+        jdbcTemplate.update("DELETE FROM tournament");
+
+        long now = System.currentTimeMillis();
+        tournament = new Tournament();
+        tournament.setTournamentName("Entry Test");
+        tournament.setStartTime(new Date(now - 3_600_000));
+        tournament.setEndTime(new Date(now + 3_600_000));
+        tournament = tournamentRepository.save(tournament);
+        activeTournamentHolder.refresh();
+    }
+
+    @Test
+    void failedEntryRollsBackTheEntryFeeAndTheGroup() {
+        String userId = "USERENTRY" + System.nanoTime();
+        userRepository.save(new User(null, userId, userId, 25, 5000, "Turkey", new Date(), false, true, 0));
+        doThrow(new DataIntegrityViolationException("membership rejected")).when(userGroupRepository).save(any(UserGroup.class));
+
+        assertThrows(DataIntegrityViolationException.class, () -> tournamentService.enterTournament(userId));
+
+        User user = userRepository.findByUserId(userId);
+        assertEquals(5000, user.getCoins());
+        assertFalse(user.isInTournament());
+        assertTrue(user.isRewardClaimed());
+        assertEquals(0, count("SELECT COUNT(*) FROM tournament_group"));
+
+        reset(userGroupRepository);
+        assertTrue(tournamentService.enterTournament(userId));
+
+        assertEquals(4000, userRepository.findByUserId(userId).getCoins());
+        assertEquals(1, count("SELECT COUNT(*) FROM user_group"));
+        // The group of the rolled back entry is not offered to later entries
+        assertEquals(1, count("SELECT COUNT(*) FROM tournament_group WHERE member_count = 1"));
+        assertEquals(1, tournamentService.getUserRank(userId, tournament.getId()));
+    }
+
+    @Test
+    void failedMembershipGivesTheSlotBack() {
+        String firstId = "USERENTRY" + System.nanoTime();
+        userRepository.save(new User(null, firstId, firstId, 25, 5000, "Turkey", new Date(), false, true, 0));
+        assertTrue(tournamentService.enterTournament(firstId));
+
+        String failedId = "USERENTRY" + System.nanoTime();
+        userRepository.save(new User(null, failedId, failedId, 25, 5000, "France", new Date(), false, true, 0));
+        doThrow(new DataIntegrityViolationException("membership rejected")).when(userGroupRepository).save(any(UserGroup.class));
+        assertThrows(DataIntegrityViolationException.class, () -> tournamentService.enterTournament(failedId));
+        reset(userGroupRepository);
+
+        // The French slot of the first group is offered again instead of opening a new group
+        String secondId = "USERENTRY" + System.nanoTime();
+        userRepository.save(new User(null, secondId, secondId, 25, 5000, "France", new Date(), false, true, 0));
+        assertTrue(tournamentService.enterTournament(secondId));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM tournament_group"));
+        assertEquals(2, count("SELECT member_count FROM tournament_group"));
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
@@ -0,0 +1,188 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.entity.TournamentFinalization;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentFinalizationRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class TournamentFinalizationTest {
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private TournamentFinalizationRepository finalizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Tournament tournament;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM pending_reward");
+        jdbcTemplate.update("DELETE FROM tournament_finalization");
+        jdbcTemplate.update("DELETE FROM user_group");
+        jdbcTemplate.update("DELETE FROM tournament_group");
+        jdbcTemplate.update("DELETE FROM tournament");
+
+        long now = System.currentTimeMillis();
+        tournament = new Tournament();
+        tournament.setTournamentName("Finalization Test");
+        tournament.setStartTime(new Date(now - 3_600_000));
+        tournament.setEndTime(new Date(now + 3_600_000));
+        tournament = tournamentRepository.save(tournament);
+        activeTournamentHolder.refresh();
+    }
+
+    @Test
+    void scheduledEndFinalizesTheTournamentThatJustEnded() {
+        List<String> users = enterGroup("USEREND");
+        tournamentService.completeLevel(users.get(0));
+        endTournamentAt(System.currentTimeMillis() - 1_000);
+
+        tournamentService.endCurrentTournament();
+
+        TournamentFinalization finalization = finalizationRepository.findById(tournament.getId()).orElseThrow();
+        assertNotNull(finalization.getCompletedAt());
+        assertNotNull(finalization.getSettledAt());
+        assertEquals(5, finalization.getRowsUpdated());
+        users.forEach(userId -> assertFalse(userRepository.findByUserId(userId).isInTournament()));
+        assertEquals(5, pendingRewards());
+        // Nothing is left for the next run
+        assertTrue(tournamentService.finalizeEndedTournaments().isEmpty());
+    }
+
+    @Test
+    void scheduledEndLeavesTheRunningTournamentAlone() {
+        List<String> users = enterGroup("USERRUN");
+
+        tournamentService.endCurrentTournament();
+
+        assertTrue(finalizationRepository.findById(tournament.getId()).isEmpty());
+        users.forEach(userId -> assertTrue(userRepository.findByUserId(userId).isInTournament()));
+    }
+
+    @Test
+    void placesGroupMembersAndBreaksTiesByEntryOrder() {
+        List<String> users = enterGroup("USERTIE");
+        tournamentService.completeLevel(users.get(0));
+        for (int i = 0; i < 3; i++) {
+            tournamentService.completeLevel(users.get(1));
+            tournamentService.completeLevel(users.get(2));
+        }
+        endTournamentAt(System.currentTimeMillis() - 1_000);
+
+        tournamentService.finalizeEndedTournaments();
+
+        assertEquals(10000, rewardOf(users.get(1)));
+        assertEquals(5000, rewardOf(users.get(2)));
+        assertEquals(0, rewardOf(users.get(0)));
+        assertEquals(0, rewardOf(users.get(3)));
+        assertEquals(0, rewardOf(users.get(4)));
+
+        assertTrue(tournamentService.claimReward(users.get(1)));
+        assertEquals(4075 + 10000, userRepository.findByUserId(users.get(1)).getCoins());
+        assertFalse(tournamentService.claimReward(users.get(1)));
+    }
+
+    @Test
+    void claimBeforeTheEndJobRanSettlesNothing() {
+        List<String> users = enterGroup("USERCLAIM");
+        tournamentService.completeLevel(users.get(0));
+        endTournamentAt(System.currentTimeMillis() - 1_000);
+
+        assertFalse(tournamentService.claimReward(users.get(0)));
+
+        assertTrue(finalizationRepository.findById(tournament.getId()).isEmpty());
+        assertEquals(0, pendingRewards());
+    }
+
+    @Test
+    void resumesAFinalizationWhoseLeaseExpired() {
+        List<String> users = enterGroup("USEREXP");
+        endTournamentAt(System.currentTimeMillis() - 1_000);
+        leaseTo("crashed-node", System.currentTimeMillis() - 1_000);
+
+        tournamentService.finalizeEndedTournaments();
+
+        TournamentFinalization finalization = finalizationRepository.findById(tournament.getId()).orElseThrow();
+        assertNotNull(finalization.getCompletedAt());
+        assertNull(finalization.getLeaseOwner());
+        users.forEach(userId -> assertFalse(userRepository.findByUserId(userId).isInTournament()));
+        assertEquals(5, pendingRewards());
+    }
+
+    @Test
+    void leavesAFinalizationLeasedByAnotherNode() {
+        List<String> users = enterGroup("USERLEASE");
+        endTournamentAt(System.currentTimeMillis() - 1_000);
+        leaseTo("other-node", System.currentTimeMillis() + 60_000);
+
+        tournamentService.finalizeEndedTournaments();
+
+        assertNull(finalizationRepository.findById(tournament.getId()).orElseThrow().getCompletedAt());
+        users.forEach(userId -> assertTrue(userRepository.findByUserId(userId).isInTournament()));
+        assertEquals(0, pendingRewards());
+    }
+
+    /**
+     * Enters one user of every country, which fills a group and starts its competition.
+     */
+    private List<String> enterGroup(String prefix) {
+        List<String> userIds = new ArrayList<>();
+        for (String country : UserService.COUNTRIES) {
+            String userId = prefix + System.nanoTime();
+            userRepository.save(new User(null, userId, userId, 25, 5000, country, new Date(), false, true, 0));
+            assertTrue(tournamentService.enterTournament(userId));
+            userIds.add(userId);
+        }
+        // Every slot was reserved in the database and the last one started the competition
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tournament_group WHERE tournament_id = ? " +
+                "AND member_count = 5 AND competition_started = true", Integer.class, tournament.getId()));
+        return userIds;
+    }
+
+    private void endTournamentAt(long endTime) {
+        tournamentRepository.updateEndTime(tournament.getId(), new Date(endTime));
+        activeTournamentHolder.refresh();
+    }
+
+    private void leaseTo(String owner, long leaseUntil) {
+        jdbcTemplate.update("INSERT INTO tournament_finalization (tournament_id, last_user_id, rows_updated, started_at, " +
+                "lease_owner, lease_until) VALUES (?, 0, 0, ?, ?, ?)", tournament.getId(), new Date(), owner, new Date(leaseUntil));
+    }
+
+    private int rewardOf(String userId) {
+        return jdbcTemplate.queryForObject("SELECT coins FROM pending_reward WHERE user_id = ?",
+                Integer.class, userRepository.findByUserId(userId).getId());
+    }
+
+    private int pendingRewards() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pending_reward WHERE tournament_id = ?",
+                Integer.class, tournament.getId());
+    }
+}
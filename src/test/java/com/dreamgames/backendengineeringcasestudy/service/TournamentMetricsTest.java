@@ -0,0 +1,138 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=prometheus")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class TournamentMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private TournamentMetrics metrics;
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private LeaderboardStreams leaderboardStreams;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM pending_reward");
+        jdbcTemplate.update("DELETE FROM tournament_finalization");
+        jdbcTemplate.update("DELETE FROM user_group");
+        jdbcTemplate.update("DELETE FROM tournament_group");
+        jdbcTemplate.update("DELETE FROM tournament");
+
+        long now = System.currentTimeMillis();
+        Tournament tournament = new Tournament();
+        tournament.setTournamentName("Metrics Test");
+        tournament.setStartTime(new Date(now - 3_600_000));
+        tournament.setEndTime(new Date(now + 3_600_000));
+        tournamentRepository.save(tournament);
+        activeTournamentHolder.refresh();
+    }
+
+    @Test
+    void matchmakingUpdatesTheCountersAndGauges() {
+        double created = matchmaking("created");
+        double joined = matchmaking("joined");
+        double waiting = gauge("tournament.groups.waiting");
+        double subscribers = gauge("tournament.leaderboard_stream.subscribers");
+
+        String creator = enterUser("Turkey");
+        enterUser("France");
+        leaderboardStreams.subscribeGroup(jdbcTemplate.queryForObject("SELECT ug.group_id FROM user_group ug " +
+                "JOIN user u ON u.id = ug.user_id WHERE u.user_id = ?", Long.class, creator));
+
+        assertEquals(created + 1, matchmaking("created"));
+        assertEquals(joined + 1, matchmaking("joined"));
+        assertEquals(waiting + 1, gauge("tournament.groups.waiting"));
+        assertEquals(subscribers + 1, gauge("tournament.leaderboard_stream.subscribers"));
+        assertEquals(0, gauge("tournament.write_behind.pending"));
+    }
+
+    @Test
+    void countsOptimisticLockConflictsPerOperationAndOutcome() {
+        metrics.optimisticLockConflict("countingTest");
+        metrics.optimisticLockConflict("countingTest");
+        metrics.optimisticLockRetry("countingTest");
+        metrics.optimisticLockRetriesExhausted("countingTest");
+
+        assertEquals(2, optimisticLock("countingTest", "conflict"));
+        assertEquals(1, optimisticLock("countingTest", "retry"));
+        assertEquals(1, optimisticLock("countingTest", "exhausted"));
+    }
+
+    @Test
+    void exposesTheMetricsForPrometheus() throws Exception {
+        enterUser("Germany");
+        metrics.optimisticLockConflict("metricsTest");
+
+        MvcResult result = mockMvc.perform(get("/actuator/prometheus")).andReturn();
+
+        assertEquals(200, result.getResponse().getStatus());
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("tournament_matchmaking_total{outcome=\"created\""), body);
+        assertTrue(body.contains("tournament_groups_waiting "));
+        assertTrue(body.contains("tournament_write_behind_pending "));
+        assertTrue(body.contains("tournament_leaderboard_stream_subscribers "));
+        assertTrue(body.contains("tournament_optimistic_lock_total{operation=\"metricsTest\",outcome=\"conflict\""));
+    }
+
+    private String enterUser(String country) {
+        String userId = "USERMETRICS" + System.nanoTime();
+        userRepository.save(new User(null, userId, userId, 25, 5000, country, new Date(), false, true, 0));
+        assertTrue(tournamentService.enterTournament(userId));
+        return userId;
+    }
+
+    private double matchmaking(String outcome) {
+        return registry.get("tournament.matchmaking").tag("outcome", outcome).counter().count();
+    }
+
+    private double optimisticLock(String operation, String outcome) {
+        return registry.get("tournament.optimistic_lock").tag("operation", operation).tag("outcome", outcome)
+                .counter().count();
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,118 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.repository.UserGroupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TournamentRankIndexTest {
+
+    @Mock
+    private UserGroupRepository userGroupRepository;
+
+    @InjectMocks
+    private TournamentRankIndex rankIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rankIndex, "reconcileIntervalMillis", 60_000L);
+    }
+
+    @Test
+    void ranksTiedUsersInEntryOrder() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long i = 1; i <= 10_000; i++) {
+            rows.add(new Object[]{"USER" + i, i, i / 5, "Turkey", 0});
+        }
+        when(userGroupRepository.findRankEntries(1L)).thenReturn(rows);
+
+        assertEquals(1, rankIndex.rank(1L, "USER1").orElseThrow());
+        assertEquals(10_000, rankIndex.rank(1L, "USER10000").orElseThrow());
+
+        rankIndex.updateScore(1L, "USER10000", 1);
+        assertEquals(1, rankIndex.rank(1L, "USER10000").orElseThrow());
+        assertEquals(2, rankIndex.rank(1L, "USER1").orElseThrow());
+        assertTrue(rankIndex.rank(1L, "UNKNOWN").isEmpty());
+    }
+
+    @Test
+    void matchesSortedOrderAfterRandomUpdates() {
+        when(userGroupRepository.findRankEntries(1L)).thenReturn(Collections.emptyList());
+        rankIndex.warmUp(1L);
+
+        Random random = new Random(42);
+        int[] scores = new int[500];
+        for (int i = 0; i < scores.length; i++) {
+            rankIndex.add(1L, "USER" + i, new TournamentRankIndex.Entry((long) i, (long) i / 5, "France", 0));
+        }
+        for (int n = 0; n < 20_000; n++) {
+            int i = random.nextInt(scores.length);
+            rankIndex.updateScore(1L, "USER" + i, ++scores[i]);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            expected.add(i);
+        }
+        expected.sort(Comparator.comparingInt((Integer i) -> scores[i]).reversed().thenComparingInt(i -> i));
+        for (int position = 0; position < expected.size(); position++) {
+            assertEquals(position + 1, rankIndex.rank(1L, "USER" + expected.get(position)).orElseThrow());
+        }
+    }
+
+    @Test
+    void ignoresStaleScores() {
+        when(userGroupRepository.findRankEntries(1L)).thenReturn(List.<Object[]>of(
+                new Object[]{"USER1", 1L, 1L, "Turkey", 5},
+                new Object[]{"USER2", 2L, 1L, "France", 3}));
+
+        rankIndex.warmUp(1L);
+        rankIndex.updateScore(1L, "USER1", 2);
+
+        assertEquals(5, rankIndex.entry(1L, "USER1").orElseThrow().score());
+        assertEquals(1, rankIndex.rank(1L, "USER1").orElseThrow());
+    }
+
+    @Test
+    void looksUpUsersMissingFromTheIndexInTheDatabase() {
+        when(userGroupRepository.findRankEntries(1L)).thenReturn(List.<Object[]>of(new Object[]{"USER1", 1L, 1L, "Turkey", 2}));
+        when(userGroupRepository.findRankEntry(1L, "USER2")).thenReturn(List.<Object[]>of(new Object[]{"USER2", 2L, 1L, "France", 3}));
+        when(userGroupRepository.findRankEntry(1L, "USER3")).thenReturn(List.<Object[]>of(new Object[]{"USER3", 3L, 1L, "Germany", 1}));
+        rankIndex.warmUp(1L);
+
+        // Entered through another node
+        assertEquals(1, rankIndex.rank(1L, "USER2").orElseThrow());
+        assertEquals(2, rankIndex.rank(1L, "USER1").orElseThrow());
+        // The stored score already holds the increment
+        assertEquals(1, rankIndex.incrementScore(1L, "USER3", 1).orElseThrow().score());
+        assertTrue(rankIndex.rank(1L, "UNKNOWN").isEmpty());
+    }
+
+    @Test
+    void reconcilesWithTheDatabaseAndKeepsHigherIndexedScores() {
+        when(userGroupRepository.findRankEntries(1L)).thenReturn(
+                List.<Object[]>of(new Object[]{"USER1", 1L, 1L, "Turkey", 1}),
+                List.<Object[]>of(new Object[]{"USER1", 1L, 1L, "Turkey", 4}, new Object[]{"USER2", 2L, 1L, "France", 6}));
+        rankIndex.warmUp(1L);
+        // Buffered on this node and not stored yet
+        rankIndex.updateScore(1L, "USER1", 7);
+
+        ReflectionTestUtils.setField(rankIndex, "reconcileIntervalMillis", 0L);
+        assertEquals(1, rankIndex.rank(1L, "USER1").orElseThrow());
+
+        assertEquals(7, rankIndex.entry(1L, "USER1").orElseThrow().score());
+        assertEquals(2, rankIndex.rank(1L, "USER2").orElseThrow());
+        verify(userGroupRepository, never()).findRankEntry(anyLong(), anyString());
+    }
+}
@@ -0,0 +1,170 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import com.dreamgames.backendengineeringcasestudy.entity.Tournament;
+import com.dreamgames.backendengineeringcasestudy.entity.User;
+import com.dreamgames.backendengineeringcasestudy.repository.TournamentRepository;
+import com.dreamgames.backendengineeringcasestudy.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class TournamentServiceTest {
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @Autowired
+    private TournamentRepository tournamentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ActiveTournamentHolder activeTournamentHolder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Tournament tournament;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM pending_reward");
+        jdbcTemplate.update("DELETE FROM tournament_finalization");
+        jdbcTemplate.update("DELETE FROM user_group");
+        jdbcTemplate.update("DELETE FROM tournament_group");
+        jdbcTemplate.update("DELETE FROM tournament");
+
+        long now = System.currentTimeMillis();
+        tournament = new Tournament();
+        tournament.setTournamentName("Service Test");
+        tournament.setStartTime(new Date(now - 3_600_000));
+        tournament.setEndTime(new Date(now + 3_600_000));
+        tournament = tournamentRepository.save(tournament);
+        activeTournamentHolder.refresh();
+    }
+
+    @Test
+    void concurrentCompletionsLoseNoLevelsCoinsOrScores() throws Exception {
+        List<String> users = enterUsers("USERCONC", UserService.COUNTRIES);
+        String userId = users.get(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int n = 0; n < 50; n++) {
+                    tournamentService.completeLevel(userId);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        User user = userRepository.findByUserId(userId);
+        assertEquals(25 + 400, user.getLevel());
+        assertEquals(4000 + 400 * 25, user.getCoins());
+        assertEquals(400, score(user));
+        assertEquals(1, tournamentService.getUserRank(userId, tournament.getId()));
+        assertEquals(400, tournamentService.getCountryLeaderboard().get(user.getCountry()));
+    }
+
+    @Test
+    void userWithoutActiveGroupGetsLevelAndCoinsButNoScore() {
+        String outside = "USEROUT" + System.nanoTime();
+        userRepository.save(new User(null, outside, outside, 25, 5000, "Turkey", new Date(), false, true, 0));
+
+        tournamentService.completeLevel(outside);
+
+        User user = userRepository.findByUserId(outside);
+        assertEquals(26, user.getLevel());
+        assertEquals(5025, user.getCoins());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_group WHERE user_id = ?", Integer.class, user.getId()));
+    }
+
+    @Test
+    void levelUpdateBasedOnAStaleCachedCopyReadsTheUserAgain() {
+        String userId = "USERSTALE" + System.nanoTime();
+        User saved = userRepository.save(new User(null, userId, userId, 25, 5000, "Turkey", new Date(), false, true, 0));
+        userRepository.findByUserId(userId);
+        // Another node updates the user, this node still caches the old copy
+        jdbcTemplate.update("UPDATE user SET level = 30, version = version + 1 WHERE id = ?", saved.getId());
+
+        User updated = userService.updateLevel(userId);
+
+        assertEquals(31, updated.getLevel());
+        assertEquals(5025, updated.getCoins());
+        User stored = userRepository.findByUserId(userId);
+        assertEquals(31, stored.getLevel());
+        assertEquals(stored.getVersion(), updated.getVersion());
+    }
+
+    @Test
+    void userOfAGroupThatHasNotStartedScoresNothing() {
+        String waiting = enterUsers("USERWAIT", List.of("Turkey", "France")).get(0);
+
+        tournamentService.completeLevel(waiting);
+
+        User user = userRepository.findByUserId(waiting);
+        assertEquals(26, user.getLevel());
+        assertEquals(4025, user.getCoins());
+        assertEquals(0, score(user));
+    }
+
+    @Test
+    void creatingAndEndingATournamentRefreshTheActiveTournament() {
+        // Long enough that only the refresh can replace the held tournament during the test
+        ReflectionTestUtils.setField(activeTournamentHolder, "ttlMillis", 3_600_000L);
+        try {
+            activeTournamentHolder.refresh();
+            assertEquals(tournament.getId(), tournamentService.getCurrentTournament().getId());
+
+            tournamentService.endTournament();
+            assertNull(tournamentService.getCurrentTournament());
+
+            Tournament created = tournamentService.createNewTournament("Next Tournament");
+            Date now = new Date();
+            // The new tournament runs from midnight to 20:00 UTC, so it is not active in the evening
+            boolean active = created.getStartTime().before(now) && created.getEndTime().after(now);
+            Tournament current = tournamentService.getCurrentTournament();
+            assertEquals(active ? created.getId() : null, current != null ? current.getId() : null);
+        } finally {
+            ReflectionTestUtils.setField(activeTournamentHolder, "ttlMillis", 1000L);
+            activeTournamentHolder.refresh();
+        }
+    }
+
+    private List<String> enterUsers(String prefix, List<String> countries) {
+        List<String> userIds = new ArrayList<>();
+        for (String country : countries) {
+            String userId = prefix + System.nanoTime();
+            userRepository.save(new User(null, userId, userId, 25, 5000, country, new Date(), false, true, 0));
+            assertTrue(tournamentService.enterTournament(userId));
+            userIds.add(userId);
+        }
+        return userIds;
+    }
+
+    private int score(User user) {
+        return jdbcTemplate.queryForObject("SELECT score FROM user_group WHERE user_id = ? AND active = true",
+                Integer.class, user.getId());
+    }
+}
@@ -0,0 +1,80 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIdGeneratorTest {
+
+    private final AtomicLong now = new AtomicLong(UserIdGenerator.EPOCH_MILLIS + 1000);
+
+    private UserIdGenerator generator(long nodeId) {
+        UserIdGenerator generator = new UserIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", nodeId);
+        ReflectionTestUtils.setField(generator, "clock", (LongSupplier) now::get);
+        generator.validate();
+        return generator;
+    }
+
+    @Test
+    void encodesTimeNodeAndSequence() {
+        UserIdGenerator generator = generator(7);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertEquals(1000, first >>> (UserIdGenerator.NODE_BITS + UserIdGenerator.SEQUENCE_BITS));
+        assertEquals(7, (first >>> UserIdGenerator.SEQUENCE_BITS) & UserIdGenerator.MAX_NODE_ID);
+        assertEquals(first + 1, second);
+        assertEquals("USER" + String.format("%019d", first), generator(7).nextUserId());
+    }
+
+    @Test
+    void keepsIncreasingWhenSequenceOverflowsOrClockGoesBack() {
+        UserIdGenerator generator = generator(1);
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                now.addAndGet(-500);
+            }
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentCallersAndNodesNeverCollide() throws Exception {
+        List<UserIdGenerator> nodes = List.of(generator(1), generator(2));
+        Set<String> userIds = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                UserIdGenerator node = nodes.get(t % 2);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        userIds.add(node.nextUserId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(8 * 20_000, userIds.size());
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalStateException.class, () -> generator(UserIdGenerator.MAX_NODE_ID + 1));
+    }
+}
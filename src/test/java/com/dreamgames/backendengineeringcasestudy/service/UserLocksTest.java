@@ -0,0 +1,65 @@
+package com.dreamgames.backendengineeringcasestudy.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserLocksTest {
+
+    private UserLocks locks(int stripes) {
+        UserLocks locks = new UserLocks();
+        ReflectionTestUtils.setField(locks, "stripes", stripes);
+        locks.init();
+        return locks;
+    }
+
+    @Test
+    void serializesActionsOfTheSameUser() throws Exception {
+        UserLocks locks = locks(64);
+        int[] coins = {5000};
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> entries = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            entries.add(executor.submit(() -> {
+                start.await();
+                // Check then write, as entering a tournament does
+                return locks.withLock("USER1", () -> {
+                    if (coins[0] < 5000) {
+                        return false;
+                    }
+                    Thread.yield();
+                    coins[0] -= 1000;
+                    return true;
+                });
+            }));
+        }
+        start.countDown();
+
+        int entered = 0;
+        for (Future<Boolean> entry : entries) {
+            entered += entry.get(10, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+        assertEquals(1, entered);
+        assertEquals(4000, coins[0]);
+    }
+
+    @Test
+    void usesAFixedNumberOfLocks() {
+        UserLocks locks = locks(1000);
+
+        Set<Object> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 100_000; i++) {
+            used.add(locks.lockOf("USER" + String.format("%019d", i)));
+        }
+
+        assertEquals(1024, locks.stripeCount());
+        assertEquals(1024, used.size());
+        assertSame(locks.lockOf("USER1"), locks.lockOf("USER1"));
+    }
+}